@@ -0,0 +1,92 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.generation.blogpessoal.BlogpessoalApplication;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.security.JwtService;
+import com.generation.blogpessoal.service.UsuarioService;
+
+/*A aplicação inteira no ar (Tomcat, segurança, H2 em memória), com um tema, um usuário e "postagens" postagens,
+ *para os benchmarks que medem os endpoints pela API. Precisa ser executada na raiz do projeto, onde fica o .env com o JWT_SECRET.*/
+final class AplicacaoH2 implements AutoCloseable {
+
+	private final ConfigurableApplicationContext aplicacao;
+	private final HttpClient http = HttpClient.newHttpClient();
+	private final String base;
+	private final String token;
+	private final Long temaId;
+
+	AplicacaoH2(String banco, int postagens) {
+
+		aplicacao = new SpringApplicationBuilder(BlogpessoalApplication.class).run(
+				"--server.port=0",
+				"--spring.profiles.active=",
+				"--spring.datasource.url=jdbc:h2:mem:" + banco + ";MODE=MySQL",
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.flyway.enabled=false", //as migrações ficam em src/main/resources, fora do jar dos benchmarks
+				"--spring.jpa.hibernate.ddl-auto=create-drop",
+				"--spring.jpa.open-in-view=false",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.root=WARN");
+
+		Tema tema = new Tema();
+		tema.setDescricao("Tema do benchmark");
+		tema = aplicacao.getBean(TemaRepository.class).save(tema);
+		temaId = tema.getId();
+
+		Usuario usuario = new Usuario();
+		usuario.setNome("Benchmark");
+		usuario.setUsuario("benchmark@root.com");
+		usuario.setSenha("rootroot");
+		usuario = aplicacao.getBean(UsuarioService.class).cadastrarUsuario(usuario).orElseThrow();
+
+		List<Postagem> lista = new ArrayList<>();
+
+		for (int i = 1; i <= postagens; i++) {
+			Postagem postagem = new Postagem();
+			postagem.setTitulo("Postagem do benchmark " + i);
+			postagem.setTexto("Texto da postagem do benchmark número " + i);
+			postagem.setTema(tema);
+			postagem.setUsuario(usuario);
+			lista.add(postagem);
+		}
+
+		aplicacao.getBean(PostagemRepository.class).saveAll(lista);
+
+		token = "Bearer " + aplicacao.getBean(JwtService.class).generateToken("benchmark@root.com");
+		base = "http://localhost:" + aplicacao.getEnvironment().getProperty("local.server.port");
+	}
+
+	Long temaId() {
+		return temaId;
+	}
+
+	<T> T bean(Class<T> tipo) {
+		return aplicacao.getBean(tipo);
+	}
+
+	String get(String caminho) throws Exception {
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + caminho)).header("Authorization", token).GET().build();
+		return http.send(requisicao, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+	@Override
+	public void close() {
+		aplicacao.close();
+	}
+}
@@ -0,0 +1,144 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.service.BuscaPostagemService;
+
+/*Compara a busca atual por título (LIKE '%termo%' no banco, como o findAllByTituloContainingIgnoreCase gera)
+ *com a busca no índice invertido em memória do BuscaPostagemService, sobre a mesma massa de postagens.
+ *O banco é um H2 em memória, então o LIKE aqui não paga nem rede nem disco - no MySQL/PostgreSQL a diferença é maior.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaPostagemBenchmark {
+
+	private static final String[] VOCABULARIO = {
+			"viagem", "cozinha", "receita", "música", "canção", "futebol", "programação", "java", "spring", "banco",
+			"dados", "jardim", "livro", "leitura", "cinema", "filme", "série", "praia", "montanha", "café", "chocolate",
+			"bolo", "pão", "treino", "corrida", "saúde", "família", "trabalho", "carreira", "estudo", "escola",
+			"história", "ciência", "tecnologia", "notícia", "política", "economia", "arte", "pintura", "fotografia" };
+
+	private static final String CONSULTA_LIKE =
+			"SELECT id, titulo, texto, data FROM tb_postagens WHERE UPPER(titulo) LIKE UPPER(?) ESCAPE '\\'";
+
+	@Param({ "10000", "100000" })
+	private int postagens;
+
+	@Param({ "receita" })
+	private String termo;
+
+	private Connection conexao;
+	private PreparedStatement consultaLike;
+	private BuscaPostagemService indice;
+
+	@Setup(Level.Trial)
+	public void preparar() throws SQLException {
+
+		conexao = DriverManager.getConnection("jdbc:h2:mem:busca;MODE=MySQL", "sa", "");
+
+		try (Statement comando = conexao.createStatement()) {
+			comando.execute("CREATE TABLE tb_postagens (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+					+ "titulo VARCHAR(100), texto VARCHAR(1000), data TIMESTAMP)");
+		}
+
+		indice = new BuscaPostagemService();
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		LocalDateTime agora = LocalDateTime.now();
+
+		try (PreparedStatement insercao = conexao.prepareStatement(
+				"INSERT INTO tb_postagens (id, titulo, texto, data) VALUES (?, ?, ?, ?)")) {
+
+			for (long id = 1; id <= postagens; id++) {
+				Postagem postagem = new Postagem();
+				postagem.setId(id);
+				postagem.setTitulo(frase(aleatorio, 4));
+				postagem.setTexto(frase(aleatorio, 60));
+				postagem.setData(agora.minusMinutes(id));
+
+				insercao.setLong(1, id);
+				insercao.setString(2, postagem.getTitulo());
+				insercao.setString(3, postagem.getTexto());
+				insercao.setTimestamp(4, Timestamp.valueOf(postagem.getData()));
+				insercao.addBatch();
+
+				indice.indexar(postagem);
+			}
+
+			insercao.executeBatch();
+		}
+
+		consultaLike = conexao.prepareStatement(CONSULTA_LIKE);
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() throws SQLException {
+		try (Statement comando = conexao.createStatement()) {
+			comando.execute("DROP ALL OBJECTS");
+		}
+		conexao.close();
+	}
+
+	@Benchmark
+	public int likeNoBanco(Blackhole blackhole) throws SQLException {
+
+		consultaLike.setString(1, "%" + termo + "%");
+		int encontrados = 0;
+
+		try (ResultSet resultado = consultaLike.executeQuery()) {
+			while (resultado.next()) {
+				blackhole.consume(resultado.getString(2));
+				blackhole.consume(resultado.getString(3));
+				encontrados++;
+			}
+		}
+
+		return encontrados;
+	}
+
+	@Benchmark
+	public Object indiceInvertidoPrimeiraPagina() {
+		return indice.buscar(termo, null, 20);
+	}
+
+	private static String frase(SplittableRandom aleatorio, int palavras) {
+
+		StringBuilder frase = new StringBuilder();
+
+		for (int i = 0; i < palavras; i++) {
+			if (i > 0) {
+				frase.append(' ');
+			}
+			frase.append(VOCABULARIO[aleatorio.nextInt(VOCABULARIO.length)]);
+		}
+
+		return frase.toString();
+	}
+}
@@ -0,0 +1,140 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*Teste de carga HTTP simples contra uma instância da aplicação já em execução.
+ *
+ *Serve para comparar os modos de execução da aplicação com a mesma carga - por exemplo, as threads
+ *da plataforma (padrão) e as threads virtuais (perfil "virtual"): suba a aplicação em um modo, rode a carga,
+ *troque o modo e rode de novo.
+ *
+ *Uso (o jar é gerado por mvn -Pbenchmarks -Dmaven.test.skip=true package):
+ *  java -cp target/benchmarks.jar com.generation.blogpessoal.benchmark.CargaHttp \
+ *       [url base] [usuario] [senha] [clientes simultâneos] [segundos] [caminho]
+ *Padrões: http://localhost:8080 root@root.com rootroot 200 30 /postagens?limite=20
+ *
+ *Cada cliente repete a requisição (com o token obtido no login) até o fim do tempo; no final são exibidos
+ *a vazão, os erros e os percentis de latência.*/
+public class CargaHttp {
+
+	private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+	public static void main(String[] args) throws Exception {
+
+		String base = argumento(args, 0, "http://localhost:8080");
+		String usuario = argumento(args, 1, "root@root.com");
+		String senha = argumento(args, 2, "rootroot");
+		int clientes = Integer.parseInt(argumento(args, 3, "200"));
+		int segundos = Integer.parseInt(argumento(args, 4, "30"));
+		String caminho = argumento(args, 5, "/postagens?limite=20");
+
+		HttpClient http = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(10))
+				.executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+				.build();
+
+		String token = logar(http, base, usuario, senha);
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+				.header("Authorization", token)
+				.timeout(Duration.ofSeconds(60))
+				.GET()
+				.build();
+
+		long fim = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+		AtomicLong erros = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(clientes);
+		List<Future<long[]>> resultados = new ArrayList<>();
+
+		for (int i = 0; i < clientes; i++) {
+			resultados.add(executor.submit(() -> {
+
+				long[] latencias = new long[1024];
+				int quantidade = 0;
+
+				while (System.nanoTime() < fim) {
+
+					long inicio = System.nanoTime();
+
+					try {
+						HttpResponse<Void> resposta = http.send(requisicao, HttpResponse.BodyHandlers.discarding());
+
+						if (resposta.statusCode() >= 400) {
+							erros.incrementAndGet();
+						}
+					} catch (Exception e) {
+						erros.incrementAndGet();
+					}
+
+					if (quantidade == latencias.length) {
+						latencias = Arrays.copyOf(latencias, quantidade * 2);
+					}
+					latencias[quantidade++] = System.nanoTime() - inicio;
+				}
+
+				return Arrays.copyOf(latencias, quantidade);
+			}));
+		}
+
+		long[] todas = new long[0];
+
+		for (Future<long[]> resultado : resultados) {
+			long[] parcial = resultado.get();
+			int anterior = todas.length;
+			todas = Arrays.copyOf(todas, anterior + parcial.length);
+			System.arraycopy(parcial, 0, todas, anterior, parcial.length);
+		}
+
+		executor.shutdown();
+		Arrays.sort(todas);
+
+		System.out.printf("%s %s - %d clientes por %d s%n", "GET", caminho, clientes, segundos);
+		System.out.printf("Requisições: %d (%.1f/s), erros: %d%n", todas.length, (double) todas.length / segundos, erros.get());
+		System.out.printf("Latência (ms): p50 %.1f | p95 %.1f | p99 %.1f | máx %.1f%n", percentil(todas, 0.50),
+				percentil(todas, 0.95), percentil(todas, 0.99), percentil(todas, 1.0));
+		System.exit(0);
+	}
+
+	private static String logar(HttpClient http, String base, String usuario, String senha) throws Exception {
+
+		HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/usuarios/logar"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"usuario\":\"" + usuario + "\",\"senha\":\"" + senha + "\"}"))
+				.build();
+
+		HttpResponse<String> resposta = http.send(login, HttpResponse.BodyHandlers.ofString());
+		Matcher token = TOKEN.matcher(resposta.body());
+
+		if (resposta.statusCode() != 200 || !token.find()) {
+			throw new IllegalStateException("Não foi possível fazer login: HTTP " + resposta.statusCode());
+		}
+
+		return token.group(1);
+	}
+
+	private static double percentil(long[] latencias, double fracao) {
+
+		if (latencias.length == 0) {
+			return 0;
+		}
+
+		int posicao = (int) Math.ceil(fracao * latencias.length) - 1;
+		return latencias[Math.max(0, posicao)] / 1_000_000.0;
+	}
+
+	private static String argumento(String[] args, int posicao, String padrao) {
+		return args.length > posicao ? args[posicao] : padrao;
+	}
+}
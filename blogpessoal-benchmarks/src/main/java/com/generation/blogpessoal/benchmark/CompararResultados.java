@@ -0,0 +1,76 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*Compara dois resultados JSON do JMH (gerados pela ExecutarBenchmarks), benchmark a benchmark e com os mesmos @Param.
+ *
+ *Uso:
+ *  java -cp target/benchmarks.jar com.generation.blogpessoal.benchmark.CompararResultados \
+ *       [resultado anterior] [resultado novo]
+ *
+ *A diferença é mostrada em relação ao resultado anterior. Nos modos de tempo (avgt, sample, ss) um valor negativo
+ *é uma melhora; no modo thrpt, uma piora. A margem de erro (99,9%) de cada lado é exibida para julgar se a diferença é real.*/
+public class CompararResultados {
+
+	public static void main(String[] args) throws Exception {
+
+		if (args.length != 2) {
+			System.err.println("Uso: CompararResultados <resultado anterior.json> <resultado novo.json>");
+			System.exit(1);
+		}
+
+		ObjectMapper objectMapper = new ObjectMapper();
+		Map<String, JsonNode> anteriores = indexar(objectMapper.readTree(new File(args[0])));
+		Map<String, JsonNode> novos = indexar(objectMapper.readTree(new File(args[1])));
+
+		System.out.printf("%-70s %8s %24s %24s %10s%n", "Benchmark", "Modo", "Anterior", "Novo", "Diferença");
+
+		for (Map.Entry<String, JsonNode> entrada : novos.entrySet()) {
+
+			JsonNode novo = entrada.getValue();
+			JsonNode anterior = anteriores.get(entrada.getKey());
+			String diferenca = "novo";
+
+			if (anterior != null) {
+				double antes = anterior.path("primaryMetric").path("score").asDouble();
+				double depois = novo.path("primaryMetric").path("score").asDouble();
+				diferenca = antes == 0 ? "-" : String.format("%+.1f%%", (depois - antes) * 100 / antes);
+			}
+
+			System.out.printf("%-70s %8s %24s %24s %10s%n", entrada.getKey(), novo.path("mode").asText(),
+					anterior == null ? "-" : pontuacao(anterior), pontuacao(novo), diferenca);
+		}
+
+		anteriores.keySet().stream().filter(chave -> !novos.containsKey(chave))
+				.forEach(chave -> System.out.printf("%-70s %8s %24s %24s %10s%n", chave, "", pontuacao(anteriores.get(chave)), "-", "removido"));
+	}
+
+	//Chave de cada resultado: nome do benchmark sem o pacote e os @Param em ordem alfabética
+	private static Map<String, JsonNode> indexar(JsonNode resultados) {
+
+		Map<String, JsonNode> indice = new LinkedHashMap<>();
+
+		for (JsonNode resultado : resultados) {
+
+			String nome = resultado.path("benchmark").asText().replace("com.generation.blogpessoal.benchmark.", "");
+			Map<String, String> parametros = new TreeMap<>();
+			resultado.path("params").fields().forEachRemaining(parametro -> parametros.put(parametro.getKey(), parametro.getValue().asText()));
+
+			indice.put(parametros.isEmpty() ? nome : nome + " " + parametros, resultado);
+		}
+
+		return indice;
+	}
+
+	private static String pontuacao(JsonNode resultado) {
+		JsonNode metrica = resultado.path("primaryMetric");
+		return String.format("%.3f ± %.3f %s", metrica.path("score").asDouble(), metrica.path("scoreError").asDouble(),
+				metrica.path("scoreUnit").asText());
+	}
+}
@@ -0,0 +1,113 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.TemaService;
+import com.generation.blogpessoal.service.UsuarioService;
+
+/*Exclusão de um tema e de um usuário com "postagens" postagens cada, pelos serviços (TemaService.apagar e UsuarioService.apagar).
+ *Antes de cada operação um tema e um usuário novos são gravados direto pelo JDBC, fora da medição.
+ *
+ *- apagarTemaUmAUm: reprodução do antigo CascadeType.REMOVE - todas as postagens carregadas como entidades e apagadas
+ *  uma a uma (um DELETE por postagem), o que cresce com a quantidade em tempo e em memória;
+ *- apagarTema / apagarUsuario: os DELETEs em massa - o número de comandos é sempre o mesmo e só o trabalho do banco
+ *  dentro do DELETE cresce com a quantidade de postagens.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExclusaoEmMassaBenchmark {
+
+	private static final String INSERT_POSTAGEM = "INSERT INTO tb_postagens (titulo, texto, data, versao, tema_id, usuario_id) "
+			+ "VALUES (?, ?, ?, 0, ?, ?)";
+
+	@Param({ "100", "1000", "10000" })
+	private int postagens;
+
+	private AplicacaoH2 aplicacao;
+	private JdbcTemplate jdbcTemplate;
+	private SimpleJdbcInsert insertTema;
+	private SimpleJdbcInsert insertUsuario;
+	private int sequencia;
+
+	private Long temaId;
+	private Long usuarioId;
+	private String usuario;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		aplicacao = new AplicacaoH2("exclusao", 0);
+		jdbcTemplate = aplicacao.bean(JdbcTemplate.class);
+		insertTema = new SimpleJdbcInsert(jdbcTemplate).withTableName("tb_temas").usingGeneratedKeyColumns("id");
+		insertUsuario = new SimpleJdbcInsert(jdbcTemplate).withTableName("tb_usuarios").usingGeneratedKeyColumns("id");
+	}
+
+	@Setup(Level.Invocation)
+	public void popular() {
+
+		sequencia++;
+		usuario = "exclusao" + sequencia + "@root.com";
+		temaId = insertTema.executeAndReturnKey(Map.of("descricao", "Tema da exclusão " + sequencia)).longValue();
+		usuarioId = insertUsuario.executeAndReturnKey(Map.of("nome", "Exclusão", "usuario", usuario, "senha", "-", "foto", "-"))
+				.longValue();
+
+		Timestamp data = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> linhas = new ArrayList<>(postagens);
+
+		for (int i = 1; i <= postagens; i++) {
+			linhas.add(new Object[] { "Postagem da exclusão " + i, "Texto da postagem da exclusão " + i, data, temaId, usuarioId });
+		}
+
+		jdbcTemplate.batchUpdate(INSERT_POSTAGEM, linhas);
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		aplicacao.close();
+	}
+
+	@Benchmark
+	public void apagarTemaUmAUm() {
+		aplicacao.bean(TransactionTemplate.class).executeWithoutResult(status -> {
+			PostagemRepository postagemRepository = aplicacao.bean(PostagemRepository.class);
+			postagemRepository.deleteAll(postagemRepository.findAllById(postagemRepository.findIdsByTemaId(temaId)));
+			aplicacao.bean(TemaRepository.class).deleteById(temaId);
+		});
+	}
+
+	@Benchmark
+	public boolean apagarTema() {
+		return aplicacao.bean(TemaService.class).apagar(temaId);
+	}
+
+	@Benchmark
+	public boolean apagarUsuario() {
+		return aplicacao.bean(UsuarioService.class).apagar(usuarioId, usuario);
+	}
+}
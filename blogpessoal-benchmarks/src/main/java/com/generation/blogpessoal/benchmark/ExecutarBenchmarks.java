@@ -0,0 +1,59 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/*Classe principal do benchmarks.jar: repassa os argumentos ao JMH e, se nenhum formato de resultado foi pedido
+ *(-rf/-rff), grava os resultados em JSON em blogpessoal-benchmarks/resultados/jmh-<commit>-<data>.json.
+ *Dois arquivos gerados em commits diferentes são comparados com a CompararResultados.*/
+public class ExecutarBenchmarks {
+
+	private static final Path RESULTADOS = Path.of("blogpessoal-benchmarks", "resultados");
+
+	public static void main(String[] args) throws Exception {
+
+		List<String> argumentos = new ArrayList<>(List.of(args));
+
+		if (!argumentos.contains("-rf") && !argumentos.contains("-rff")) {
+			String data = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+			Path arquivo = RESULTADOS.resolve("jmh-" + commit() + "-" + data + ".json");
+			Files.createDirectories(RESULTADOS);
+			argumentos.addAll(0, List.of("-rf", "json", "-rff", arquivo.toString()));
+		}
+
+		Main.main(argumentos.toArray(String[]::new));
+	}
+
+	//Commit atual do repositório (com o sufixo "-alterado" se há mudanças não commitadas), ou "local" fora de um repositório git
+	private static String commit() {
+		try {
+			String commit = git("rev-parse", "--short", "HEAD");
+			return commit.isEmpty() ? "local" : commit + (git("status", "--porcelain", "--untracked-files=no").isEmpty() ? "" : "-alterado");
+		} catch (IOException e) {
+			return "local";
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "local";
+		}
+	}
+
+	private static String git(String... comando) throws IOException, InterruptedException {
+
+		List<String> linha = new ArrayList<>();
+		linha.add("git");
+		linha.addAll(List.of(comando));
+
+		Process processo = new ProcessBuilder(linha).redirectErrorStream(true).start();
+		String saida = new String(processo.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+
+		return processo.waitFor() == 0 ? saida : "";
+	}
+}
@@ -0,0 +1,110 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.security.JwtAuthFilter;
+import com.generation.blogpessoal.security.JwtService;
+import com.generation.blogpessoal.security.UserDetailsImpl;
+import com.generation.blogpessoal.security.UserDetailsServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/*O JwtAuthFilter sozinho, do cabeçalho Authorization até o SecurityContext preenchido, sem Tomcat e sem banco:
+ *o UserDetailsServiceImpl é substituído por um que devolve sempre o mesmo usuário, então o que se mede é
+ *a leitura do cabeçalho, a verificação do token (com ou sem o cache do JwtService) e a montagem da autenticação.
+ *- tokenValido: a requisição autenticada comum;
+ *- tokenInvalido: assinatura errada, que termina em 401 (o custo da exceção do jjwt entra na conta).*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+	private static final FilterChain FIM = (request, response) -> {};
+
+	@Param({ "0", "10000" })
+	private long tokensEmCache;
+
+	private JwtAuthFilter filtro;
+	private MockHttpServletRequest requisicaoValida;
+	private MockHttpServletRequest requisicaoInvalida;
+	private MockHttpServletResponse resposta;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+
+		JwtService jwtService = new JwtService(JwtVerificacaoBenchmark.SEGREDO, tokensEmCache);
+
+		Usuario usuario = new Usuario();
+		usuario.setId(1L);
+		usuario.setUsuario(JwtVerificacaoBenchmark.USUARIO);
+		usuario.setSenha("");
+		UserDetailsImpl userDetails = new UserDetailsImpl(usuario);
+
+		UserDetailsServiceImpl usuarios = new UserDetailsServiceImpl(1, Duration.ofMinutes(5), new SimpleMeterRegistry()) {
+			@Override
+			public UserDetails loadUserByUsername(String username) {
+				return userDetails;
+			}
+		};
+
+		filtro = new JwtAuthFilter();
+		ReflectionTestUtils.setField(filtro, "jwtService", jwtService);
+		ReflectionTestUtils.setField(filtro, "userDetailsService", usuarios);
+
+		String token = jwtService.generateToken(JwtVerificacaoBenchmark.USUARIO);
+		requisicaoValida = requisicao(token);
+		requisicaoInvalida = requisicao(token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA"));
+		resposta = new MockHttpServletResponse();
+	}
+
+	@Benchmark
+	public Object tokenValido() throws ServletException, IOException {
+		return filtrar(requisicaoValida);
+	}
+
+	@Benchmark
+	public Object tokenInvalido() throws ServletException, IOException {
+		return filtrar(requisicaoInvalida);
+	}
+
+	private Object filtrar(MockHttpServletRequest requisicao) throws ServletException, IOException {
+		try {
+			filtro.doFilter(requisicao, resposta, FIM);
+			return SecurityContextHolder.getContext().getAuthentication();
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private static MockHttpServletRequest requisicao(String token) {
+		MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/postagens");
+		requisicao.addHeader("Authorization", "Bearer " + token);
+		return requisicao;
+	}
+}
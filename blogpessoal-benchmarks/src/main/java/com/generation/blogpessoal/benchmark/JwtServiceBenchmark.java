@@ -0,0 +1,62 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.generation.blogpessoal.security.JwtService;
+
+/*Os métodos públicos do JwtService, com e sem o cache de tokens verificados (tokensEmCache = 0 desliga o cache):
+ *- generateToken: montagem e assinatura HMAC de um token novo (o login);
+ *- extractUsername e validateToken: o que cada requisição autenticada paga para ler e conferir o token.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+	@Param({ "0", "10000" })
+	private long tokensEmCache;
+
+	private JwtService jwtService;
+	private UserDetails userDetails;
+	private String token;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		jwtService = new JwtService(JwtVerificacaoBenchmark.SEGREDO, tokensEmCache);
+		userDetails = new User(JwtVerificacaoBenchmark.USUARIO, "", Collections.emptyList());
+		token = jwtService.generateToken(JwtVerificacaoBenchmark.USUARIO);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtService.generateToken(JwtVerificacaoBenchmark.USUARIO);
+	}
+
+	@Benchmark
+	public String extractUsername() {
+		return jwtService.extractUsername(token);
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return jwtService.validateToken(token, userDetails);
+	}
+}
@@ -0,0 +1,88 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.generation.blogpessoal.security.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/*Custo de autenticar uma requisição com Bearer token, do ponto de vista do JwtService:
+ *- caminhoAnterior: o que o JwtAuthFilter fazia antes - extractUsername e validateToken,
+ *  cada um montando um parser novo e verificando a assinatura de novo;
+ *- verificacaoUnica: um único parse e verificação por requisição, sem cache;
+ *- tokenEmCache: a mesma requisição repetida com um token já verificado (só o hash SHA-256 e a consulta ao cache).*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificacaoBenchmark {
+
+	static final String SEGREDO = "7d51773d113523ca938a02b05b3ce9ad770eb6939b4e945cc4d6ad9e8ecb9ea1";
+	static final String USUARIO = "root@root.com";
+
+	private SecretKey chave;
+	private JwtService semCache;
+	private JwtService comCache;
+	private UserDetails userDetails;
+	private String token;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		chave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SEGREDO));
+		semCache = new JwtService(SEGREDO, 0);
+		comCache = new JwtService(SEGREDO, 10_000);
+		userDetails = new User(USUARIO, "", Collections.emptyList());
+		token = comCache.generateToken(USUARIO);
+		comCache.verificarToken(token);
+	}
+
+	@Benchmark
+	public boolean caminhoAnterior() {
+		String usuario = extrairClaims(token).getSubject();
+		Claims claims = extrairClaims(token);
+		return usuario.equals(userDetails.getUsername()) && claims.getSubject().equals(userDetails.getUsername())
+				&& claims.getExpiration().after(new Date());
+	}
+
+	@Benchmark
+	public boolean verificacaoUnica() {
+		return semCache.validateToken(semCache.verificarToken(token), userDetails);
+	}
+
+	@Benchmark
+	public boolean tokenEmCache() {
+		return comCache.validateToken(comCache.verificarToken(token), userDetails);
+	}
+
+	//Reprodução do antigo JwtService.extractAllClaims
+	private Claims extrairClaims(String token) {
+		return Jwts.parser()
+				.verifyWith(chave)
+				.build()
+				.parseSignedClaims(token)
+				.getPayload();
+	}
+}
@@ -0,0 +1,96 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*Leitura de todas as postagens pela API, com a aplicação inteira no ar (Tomcat, segurança, H2 em memória):
+ *- listagemPaginada: GET /postagens (PostagemController.getAll) página a página, seguindo o cursor "proximo";
+ *- fluxoV2: GET /v2/postagens, respostas NDJSON de até 1000 postagens (o máximo da API), transmitidas à medida que
+ *  as páginas chegam do banco e continuadas com o id da última postagem recebida ("apos").
+ *Com vários clientes simultâneos (@Threads), mostra também quanto cada modo disputa as threads do Tomcat.
+ *Precisa ser executado na raiz do projeto (veja AplicacaoH2).*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LeituraV2Benchmark {
+
+	@Param({ "2000" })
+	private int postagens;
+
+	@Param({ "100" })
+	private int limite;
+
+	private static final int LIMITE_V2 = 1000;
+
+	private AplicacaoH2 aplicacao;
+	private ObjectMapper objectMapper;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		aplicacao = new AplicacaoH2("leitura", postagens);
+		objectMapper = new ObjectMapper();
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		aplicacao.close();
+	}
+
+	@Benchmark
+	public int listagemPaginada() throws Exception {
+
+		int lidas = 0;
+		String cursor = null;
+
+		do {
+			String caminho = "/postagens?limite=" + limite + (cursor == null ? "" : "&apos=" + cursor);
+			JsonNode pagina = objectMapper.readTree(aplicacao.get(caminho));
+			lidas += pagina.get("itens").size();
+			cursor = pagina.hasNonNull("proximo") ? pagina.get("proximo").asText() : null;
+		} while (cursor != null);
+
+		return lidas;
+	}
+
+	@Benchmark
+	public int fluxoV2() throws Exception {
+
+		int lidas = 0;
+		int linhas;
+		String apos = null;
+
+		do {
+			linhas = 0;
+
+			for (String linha : (Iterable<String>) aplicacao.get("/v2/postagens?limite=" + LIMITE_V2 + (apos == null ? "" : "&apos=" + apos)).lines()::iterator) {
+				apos = objectMapper.readTree(linha).get("id").asText();
+				linhas++;
+			}
+
+			lidas += linhas;
+		} while (linhas == LIMITE_V2);
+
+		return lidas;
+	}
+}
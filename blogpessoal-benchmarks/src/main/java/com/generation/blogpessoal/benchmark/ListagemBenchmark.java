@@ -0,0 +1,70 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*Os endpoints de listagem pela API, com a aplicação inteira no ar sobre o H2 em memória (veja AplicacaoH2):
+ *cada operação é uma requisição HTTP completa - filtro JWT, controller, serviço, consulta e JSON.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListagemBenchmark {
+
+	@Param({ "2000" })
+	private int postagens;
+
+	private AplicacaoH2 aplicacao;
+	private String postagensDoTema;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		aplicacao = new AplicacaoH2("listagem", postagens);
+		postagensDoTema = "/temas/" + aplicacao.temaId() + "/postagens";
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		aplicacao.close();
+	}
+
+	@Benchmark
+	public String postagens() throws Exception {
+		return aplicacao.get("/postagens");
+	}
+
+	@Benchmark
+	public String postagensPorTitulo() throws Exception {
+		return aplicacao.get("/postagens/titulo/benchmark%20199");
+	}
+
+	@Benchmark
+	public String temas() throws Exception {
+		return aplicacao.get("/temas");
+	}
+
+	@Benchmark
+	public String postagensDoTema() throws Exception {
+		return aplicacao.get(postagensDoTema);
+	}
+
+	@Benchmark
+	public String usuarios() throws Exception {
+		return aplicacao.get("/usuarios/all");
+	}
+}
@@ -0,0 +1,53 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/*Custo do bcrypt em cada força (o número de rodadas é 2^forca): encode é o cadastro e a troca de senha,
+ *matches é o login. A aplicação usa a força 10 (SecurityConfig.passwordEncoder) - cada ponto a mais dobra o tempo,
+ *e com ele o tempo que uma thread do pool de senhas fica ocupada por login.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SenhaBenchmark {
+
+	private static final String SENHA = "rootroot";
+
+	@Param({ "4", "8", "10", "12" })
+	private int forca;
+
+	private BCryptPasswordEncoder encoder;
+	private String hash;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		encoder = new BCryptPasswordEncoder(forca);
+		hash = encoder.encode(SENHA);
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode(SENHA);
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches(SENHA, hash);
+	}
+}
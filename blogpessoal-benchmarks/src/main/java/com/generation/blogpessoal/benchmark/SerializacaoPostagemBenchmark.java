@@ -0,0 +1,120 @@
+package com.generation.blogpessoal.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.service.FragmentosJsonPostagemService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*Serialização para JSON, com o mesmo ObjectMapper da aplicação (Hibernate6Module e datas do java.time), de grafos de postagens:
+ *- postagens: lista de entidades Postagem, cada uma com o Tema e o Usuario (é o que o cadastro e a atualização devolvem);
+ *- temaComPostagens: um Tema com todas as postagens dele (o formato antigo de GET /temas);
+ *- resumos: a mesma lista como PostagemResumo (o formato das listagens atuais);
+ *- resumosEmCache: a lista de resumos com o FragmentosJsonPostagemService, depois que o JSON de cada postagem já está no cache.
+ *Os objetos são montados em memória, sem banco: mede só o Jackson.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoPostagemBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	private int tamanho;
+
+	private ObjectMapper objectMapper;
+	private ObjectMapper objectMapperComFragmentos;
+	private List<Postagem> postagens;
+	private Tema tema;
+	private List<PostagemResumo> resumos;
+
+	@Setup(Level.Trial)
+	public void preparar() throws JsonProcessingException {
+
+		objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new Hibernate6Module()).build();
+
+		FragmentosJsonPostagemService fragmentos = new FragmentosJsonPostagemService(DataSize.ofMegabytes(32), new SimpleMeterRegistry());
+		objectMapperComFragmentos = Jackson2ObjectMapperBuilder.json().modulesToInstall(new Hibernate6Module(), fragmentos.modulo()).build();
+
+		tema = new Tema();
+		tema.setId(1L);
+		tema.setDescricao("Tema do benchmark de serialização");
+
+		Usuario usuario = new Usuario();
+		usuario.setId(1L);
+		usuario.setNome("Benchmark");
+		usuario.setUsuario("benchmark@root.com");
+		usuario.setSenha("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1GkUSs6u1XG0h0p0m5CZqXe");
+		usuario.setFoto("https://i.imgur.com/Tk9f10K.png");
+
+		postagens = new ArrayList<>();
+		resumos = new ArrayList<>();
+		LocalDateTime data = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+		for (long i = 1; i <= tamanho; i++) {
+			Postagem postagem = new Postagem();
+			postagem.setId(i);
+			postagem.setTitulo("Postagem do benchmark " + i);
+			postagem.setTexto("Texto da postagem do benchmark de serialização, número " + i + ", com algumas palavras a mais.");
+			postagem.setData(data);
+			postagem.setVersao(0L);
+			postagem.setTema(tema);
+			postagem.setUsuario(usuario);
+			postagens.add(postagem);
+
+			resumos.add(new PostagemResumo(i, postagem.getTitulo(), postagem.getTexto(), data, 0L, tema.getId(),
+					tema.getDescricao(), usuario.getId(), usuario.getNome()));
+		}
+
+		tema.setPostagem(postagens);
+		usuario.setPostagem(postagens);
+
+		objectMapperComFragmentos.writeValueAsBytes(resumos); //preenche o cache
+	}
+
+	@Benchmark
+	public byte[] postagens() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(postagens);
+	}
+
+	@Benchmark
+	public byte[] temaComPostagens() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(tema);
+	}
+
+	@Benchmark
+	public byte[] resumos() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(resumos);
+	}
+
+	@Benchmark
+	public byte[] resumosEmCache() throws JsonProcessingException {
+		return objectMapperComFragmentos.writeValueAsBytes(resumos);
+	}
+}
@@ -0,0 +1,48 @@
+package com.generation.blogpessoal.configuration;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.generation.blogpessoal.service.FragmentosJsonPostagemService;
+
+/*Com o spring.jpa.open-in-view desligado, a sessão do Hibernate já está fechada quando o JSON é escrito.
+ *As respostas que ainda devolvem entidades (cadastros e atualizações) podem trazer uma lista @OneToMany
+ *que nunca foi carregada - o Hibernate6Module a escreve como null, em vez de tentar carregá-la sem sessão
+ *(LazyInitializationException). O Spring Boot registra no ObjectMapper todo Module declarado como bean.*/
+@Configuration
+public class JacksonConfig {
+
+	@Bean
+	Hibernate6Module hibernate6Module() {
+		return new Hibernate6Module();
+	}
+
+	//Reaproveita o JSON já gerado de cada PostagemResumo
+	@Bean
+	SimpleModule fragmentosPostagemModule(FragmentosJsonPostagemService fragmentosJsonPostagemService) {
+		return fragmentosJsonPostagemService.modulo();
+	}
+
+	/*O spring.jackson.date-format só vale para java.util.Date: sem isto, as datas LocalDateTime das postagens saíam no
+	 *formato ISO. O mesmo DateTimeFormatter escreve as datas do JSON (inclusive o NDJSON) e do CSV da exportação.*/
+	@Bean
+	DateTimeFormatter formatoData(@Value("${spring.jackson.date-format:yyyy-MM-dd HH:mm:ss}") String formato) {
+		return DateTimeFormatter.ofPattern(formato);
+	}
+
+	@Bean
+	Jackson2ObjectMapperBuilderCustomizer formatoDataLocal(DateTimeFormatter formatoData) {
+		return construtor -> construtor
+				.serializerByType(LocalDateTime.class, new LocalDateTimeSerializer(formatoData))
+				.deserializerByType(LocalDateTime.class, new LocalDateTimeDeserializer(formatoData));
+	}
+}
@@ -0,0 +1,102 @@
+package com.generation.blogpessoal.configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/*DataSource que limita quantas conexões podem estar em uso ao mesmo tempo.
+ *
+ *Com threads virtuais, milhares de requisições podem chegar juntas ao banco. O pool (Hikari) tem poucas
+ *conexões, e todas as demais threads ficariam disputando o pool até estourar o connection-timeout.
+ *Aqui cada thread primeiro espera uma permissão do semáforo: a espera é ordenada (semáforo justo),
+ *não prende a thread da plataforma e tem um tempo máximo - depois dele, a requisição falha com
+ *SQLTransientConnectionException em vez de ficar presa.
+ *A permissão é devolvida quando a conexão é fechada (devolvida ao pool).*/
+public class LimiteConexoesDataSource extends DelegatingDataSource {
+
+	private final Semaphore permissoes;
+	private final long esperaMaximaNanos;
+
+	public LimiteConexoesDataSource(DataSource dataSource, int conexoesSimultaneas, Duration esperaMaxima) {
+		super(dataSource);
+		this.permissoes = new Semaphore(conexoesSimultaneas, true);
+		this.esperaMaximaNanos = esperaMaxima.toNanos();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		adquirir();
+		return liberarAoFechar(obter(() -> super.getConnection()));
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		adquirir();
+		return liberarAoFechar(obter(() -> super.getConnection(username, password)));
+	}
+
+	public int disponiveis() {
+		return permissoes.availablePermits();
+	}
+
+	private void adquirir() throws SQLException {
+
+		try {
+			if (!permissoes.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+				throw new SQLTransientConnectionException("Tempo esgotado aguardando uma conexão com o banco de dados");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrompido aguardando uma conexão com o banco de dados", e);
+		}
+	}
+
+	private Connection obter(Abertura abertura) throws SQLException {
+
+		try {
+			return abertura.abrir();
+		} catch (SQLException | RuntimeException e) {
+			permissoes.release();
+			throw e;
+		}
+	}
+
+	private Connection liberarAoFechar(Connection conexao) {
+
+		AtomicBoolean liberada = new AtomicBoolean();
+
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, metodo, argumentos) -> {
+
+					if (metodo.getName().equals("close") && liberada.compareAndSet(false, true)) {
+						try {
+							conexao.close();
+						} finally {
+							permissoes.release();
+						}
+						return null;
+					}
+
+					try {
+						return metodo.invoke(conexao, argumentos);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	@FunctionalInterface
+	private interface Abertura {
+		Connection abrir() throws SQLException;
+	}
+}
@@ -0,0 +1,44 @@
+package com.generation.blogpessoal.configuration;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+/*Perfil "virtual": as requisições são atendidas por threads virtuais (Java 21+), e não pelo pool fixo do Tomcat.
+ *
+ *O spring.threads.virtual.enabled (em application-virtual.properties) troca as threads do Tomcat.
+ *Esta configuração completa o modo virtual limitando o acesso ao banco: o DataSource passa a ser um
+ *LimiteConexoesDataSource, com tantas permissões quanto conexões no pool do Hikari.*/
+@Configuration
+@Profile("virtual")
+public class ThreadsVirtuaisConfig {
+
+	@Bean
+	static BeanPostProcessor limiteConexoesPostProcessor(Environment environment) {
+
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+				if (bean instanceof DataSource dataSource && !(bean instanceof LimiteConexoesDataSource)) {
+
+					int conexoes = environment.getProperty("blogpessoal.virtual.conexoes-simultaneas", Integer.class,
+							environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+					Duration espera = environment.getProperty("blogpessoal.virtual.espera-conexao", Duration.class,
+							Duration.ofSeconds(5));
+
+					return new LimiteConexoesDataSource(dataSource, conexoes, espera);
+				}
+
+				return bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,65 @@
+package com.generation.blogpessoal.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.service.LeituraReativaService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*API de leitura em fluxo (/v2), só com consultas.
+ *
+ *As listagens são enviadas em NDJSON (um JSON por linha), à medida que as páginas chegam do banco:
+ *o cliente começa a receber as primeiras postagens antes da consulta terminar, e o servidor não
+ *monta a lista inteira na memória. As consultas são JDBC bloqueante executado fora das threads do Tomcat
+ *(veja LeituraReativaService), não I/O não bloqueante.
+ *Cada resposta de /v2/postagens traz no máximo "limite" postagens (até LIMITE_MAXIMO), para caber no tempo máximo
+ *de uma resposta assíncrona; se vierem "limite" linhas, a leitura continua com "apos" = id da última postagem recebida.
+ *A autenticação é a mesma da API principal (token JWT no cabeçalho Authorization).
+ *As gravações continuam na API principal (/postagens e /temas).*/
+@RestController
+@RequestMapping("/v2")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class LeituraReativaController {
+
+	@Autowired
+	private LeituraReativaService leituraReativaService;
+
+	private static final int LIMITE_PADRAO = 500;
+	private static final int LIMITE_MAXIMO = 1000;
+
+	@GetMapping(value = "/postagens", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<PostagemResumo> getAllPostagens(@RequestParam(required = false) Long apos,
+			@RequestParam(defaultValue = "" + LIMITE_PADRAO) int limite) {
+		return leituraReativaService.postagens(apos, Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+	}
+
+	@GetMapping("/postagens/{id}")
+	public Mono<ResponseEntity<PostagemResumo>> getPostagemById(@PathVariable Long id) {
+		return leituraReativaService.postagem(id)
+				.map(ResponseEntity::ok)
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+	@GetMapping(value = "/temas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<Tema> getAllTemas() {
+		return leituraReativaService.temas();
+	}
+
+	@GetMapping("/temas/{id}")
+	public Mono<ResponseEntity<Tema>> getTemaById(@PathVariable Long id) {
+		return leituraReativaService.tema(id)
+				.map(ResponseEntity::ok)
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+}
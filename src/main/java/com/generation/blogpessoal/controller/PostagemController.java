@@ -1,28 +1,63 @@
 package com.generation.blogpessoal.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.generation.blogpessoal.model.CursorBusca;
+import com.generation.blogpessoal.model.CursorPostagem;
+import com.generation.blogpessoal.model.Pagina;
 import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.ResultadoBusca;
+import com.generation.blogpessoal.model.ResultadoLote;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.repository.PostagemRepository;
-import com.generation.blogpessoal.repository.TemaRepository;
-
+import com.generation.blogpessoal.service.BuscaPostagemService;
+import com.generation.blogpessoal.service.CatalogoTemaService;
+import com.generation.blogpessoal.service.ExportacaoPostagemService;
+import com.generation.blogpessoal.service.FragmentosJsonPostagemService;
+import com.generation.blogpessoal.service.GravacaoAgrupadaPostagemService;
+import com.generation.blogpessoal.service.ImportacaoPostagemService;
+import com.generation.blogpessoal.service.PostagemService;
+
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 /*REST: Representational State Transfer, ou, traduzindo: Transferência Representacional de Estado.
 REST é um tipo de arquitetura usado para contrução de APIs que se comunicam pela internet usando o protocolo HTTP.
@@ -79,28 +114,67 @@ public class PostagemController {
 *- O cabeçalhos (headers)*/
 	
 	@Autowired
-	private TemaRepository temaRepository;
+	private CatalogoTemaService catalogoTemaService; //Catálogo de temas em memória - valida o tema da postagem sem ir ao banco
+	
+	@Autowired
+	private BuscaPostagemService buscaPostagemService; //Índice de busca textual em memória - precisa acompanhar toda gravação e exclusão
+	
+	@Autowired
+	private PostagemService postagemService; //Leituras em transações somente leitura, que devolvem as projeções já preenchidas
+	
+	@Autowired
+	private FragmentosJsonPostagemService fragmentosJsonPostagemService; //JSON já serializado das postagens - descartado a cada alteração ou exclusão
+	
+	@Autowired
+	private ImportacaoPostagemService importacaoPostagemService;
+	
+	@Autowired
+	private ExportacaoPostagemService exportacaoPostagemService;
+	
+	@Autowired
+	private Validator validator; //Validações da Postagem aplicadas atributo a atributo no PATCH
+	
+	@Autowired(required = false)
+	private GravacaoAgrupadaPostagemService gravacaoAgrupadaPostagemService; //Só existe com blogpessoal.gravacao-agrupada.ativa=true
+	
+	@Value("${blogpessoal.exportacao.tempo-maximo:30m}")
+	private Duration tempoMaximoExportacao; //Só a exportação tem esse prazo: as outras respostas assíncronas ficam com o padrão do servidor
+	
+	private static final int LIMITE_PADRAO = 20;
+	private static final int LIMITE_MAXIMO = 100;
+	private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
 	
 	@GetMapping
-	public ResponseEntity<List<Postagem>> getAll(){
+	public ResponseEntity<Pagina<PostagemResumo>> getAll(@RequestParam(required = false) String apos,
+			@RequestParam(defaultValue = "" + LIMITE_PADRAO) int limite){
+		
+		int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+		CursorPostagem cursor = apos == null || apos.isBlank() ? null : decodificarCursor(apos);
 		
-		return ResponseEntity.ok(postagemRepository.findAll());
+		return ResponseEntity.ok(postagemService.listar(cursor, tamanho));
 		
-/*Porque lista: porque pode ter nenhuma, uma ou N - então a interface List cria a lista Postagem 
- * Dois sinais de maior >>: #1 tipo que vai retornar; #2 A lista que vai ser retornada
- * OK: porque se encontrar, ele retorna ok 200;
- * Dentro dos () vai o método responsável por trazer todas as postagens (o método definido em postagemRespository): findAll
- * 
- * FINDALL = SELECT * FROM TB_POSTAGENS --> Porque dá certo: este método executa essa instrução dentro do banco,
- * e ele consegue porque a Interface Reposiroty, que recebe a classe Model Postagem, que por sua vez, define a tabela tb_postagens*/
+/*Antes este método usava o findAll (SELECT * FROM TB_POSTAGENS), que carregava a tabela inteira na memória a cada chamada.
+ * Agora a listagem é paginada por cursor:
+ * - Sem o parâmetro "apos", devolve as postagens mais recentes;
+ * - Com "apos", devolve as postagens seguintes ao cursor recebido na página anterior (campo "proximo" da resposta);
+ * - "limite" define quantas postagens virão por página (no máximo LIMITE_MAXIMO).
+ * Como a busca parte do último (data, id) entregue, o banco usa o índice e não precisa "pular" as linhas anteriores (OFFSET)*/
 	
 	}
+	
+	private CursorPostagem decodificarCursor(String apos) {
+		try {
+			return CursorPostagem.decodificar(apos);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido!", null);
+		}
+	}
 
 	@GetMapping("/{id}") //mapeando o id que vem na requisição - É uma variável de caminho, ou seja, uma variável que está no endereço da requisição
 	
 	//Aqui criamos o método getById, que vai buscar a postagem pelo ID:
-	public ResponseEntity<Postagem> getById(@PathVariable Long id){ //Postagem é a entidade que vai ser retornada
-		return postagemRepository.findById(id) //Postagem Repository é a injeção de dependência; findById é um método que já vem pronto no JpaRepository, e equivale a SELECT * FROM tb_postagens WHERE id = ?
+	public ResponseEntity<PostagemResumo> getById(@PathVariable Long id){ //PostagemResumo é a projeção (só os campos exibidos) que vai ser retornada
+		return postagemService.buscarPorId(id) //Postagem Service é a injeção de dependência; por trás, o findResumoById equivale a SELECT ... FROM tb_postagens LEFT JOIN tb_temas LEFT JOIN tb_usuarios WHERE id = ?
 	
 	/*@PathVariable -> pega o valor do endereço (@GetMapping /id) e coloca na variável (Long ID) no método
 	 * Ou seja: pathvariable indica o valor ID da URL que for buscado na requisição e o insere o valor na variável ID como parâmetro para o método getById
@@ -112,7 +186,8 @@ public class PostagemController {
 	* O optional trabalha com expressões lambda (que são métodos sem corpo, ou seja, sem chaves {})*/
 
 	//Como o retorno pode ser nulo, usamos o Optional para tratar o caso, fazendo: 
-				.map(resposta -> ResponseEntity.ok(resposta)) //se encontrar, retorna o Status (código) 200 (ok) com a resposta (que é uma variável do tipo Postagem)
+				.map(resposta -> ResponseEntity.ok().eTag(etag(resposta.id(), resposta.versao())).body(resposta)) //se encontrar, retorna o Status (código) 200 (ok) com a resposta (que é uma variável do tipo Postagem)
+	//O ETag identifica a versão da postagem: se o cliente enviar If-None-Match com o mesmo valor, o Spring responde 304 (Not Modified) sem corpo
 			
 	//Caso o resultado não seja encontrado, usamos o orElse: 
 				.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build()); // Retorna o Status (código) 404 (not found)
@@ -126,27 +201,99 @@ public class PostagemController {
 	
 	
 	}
+	/*Busca textual no título e no texto das postagens, respondida pelo índice em memória (sem acessar o banco).
+	 *Ignora acentos, maiúsculas/minúsculas e plurais: "canção" encontra "Canções". Os resultados vêm do mais para o menos relevante,
+	 *e a paginação segue o mesmo contrato da listagem: "limite" por página e o cursor "proximo" devolvido no parâmetro "apos".*/
+	@GetMapping("/busca")
+	public ResponseEntity<Pagina<ResultadoBusca>> buscar(@RequestParam String q, @RequestParam(required = false) String apos,
+			@RequestParam(defaultValue = "" + LIMITE_PADRAO) int limite){
+		
+		int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+		CursorBusca cursor = null;
+		
+		if (apos != null && !apos.isBlank()) {
+			try {
+				cursor = CursorBusca.decodificar(apos);
+			} catch (IllegalArgumentException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido!", null);
+			}
+		}
+		
+		return ResponseEntity.ok(buscaPostagemService.buscar(q, cursor, tamanho));
+	}
+	
+	/*Exportação de todas as postagens para análise, em NDJSON (padrão) ou CSV (?formato=csv).
+	 *O StreamingResponseBody escreve a resposta enquanto as postagens são lidas do banco,
+	 *então o arquivo nunca fica inteiro na memória do servidor.
+	 *A tabela inteira pode levar minutos para ser escrita, por isso o prazo da resposta assíncrona é ampliado só aqui.*/
+	@GetMapping("/exportar")
+	public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato, NativeWebRequest requisicao){
+		
+		ExportacaoPostagemService.Formato escolhido;
+		
+		try {
+			escolhido = ExportacaoPostagemService.Formato.valueOf(formato.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de exportação inválido! Use ndjson ou csv.", null);
+		}
+		
+		WebAsyncUtils.getAsyncManager(requisicao).getAsyncWebRequest().setTimeout(tempoMaximoExportacao.toMillis());
+		
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(escolhido.tipo() + ";charset=UTF-8"))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"postagens." + escolhido.extensao() + "\"")
+				.body(saida -> exportacaoPostagemService.exportar(escolhido, saida));
+	}
+	
 	@GetMapping ("/titulo/{titulo}") //titulo é como um label que diz: "digita o título que você quer procurar; e {titulo} é a variável em si
 	//Chamando o método criado na Repository:
-	public ResponseEntity<List<Postagem>> getAllByTitulo(@PathVariable String titulo){ //@pathvariable para pegar o valor que vem na requisição e colocar na variável título
-		return ResponseEntity.ok(postagemRepository.findAllByTituloContainingIgnoreCase(titulo)); //Return: ResponseEntity ok (200) com a lista de postagens que encontrar
+	public ResponseEntity<List<PostagemResumo>> getAllByTitulo(@PathVariable String titulo){ //@pathvariable para pegar o valor que vem na requisição e colocar na variável título
+		return ResponseEntity.ok(postagemService.buscarPorTitulo(titulo)); //Return: ResponseEntity ok (200) com a lista de postagens que encontrar (mesmo LIKE do findAllByTituloContainingIgnoreCase, mas com a projeção)
 }
 	
 	//Criando o Método Post - Criar nova postagem
 	
+	/*Cadastro em um único comando (INSERT): a existência do tema (e do autor) não é consultada antes - quem confere
+	 *é a chave estrangeira do banco, e uma violação dela vira o mesmo 400 "O tema não existe!" de antes.*/
 	@PostMapping 
 	public ResponseEntity <Postagem> post(@Valid @RequestBody Postagem postagem){
 		
-		if(temaRepository.existsById(postagem.getTema().getId())) { //Tema está dentro de postagem, então primeiro acessamos o objeto Postagem, pegamos o objeto Tema e, por fim, pegamos a propriedade ID
+		if(postagem.getTema() == null || postagem.getTema().getId() == null) //Sem tema não há o que a chave estrangeira conferir (a coluna aceita nulo)
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tema não existe!", null); //Ao inserir Null, ele só exibe o código do Status e a mensagem entre ""
 			
-			postagem.setId(null); //O ID precisa estar com o valor nulo - porque é o banco que vai gerar o ID automaticamente
+		postagem.setId(null); //O ID precisa estar com o valor nulo - porque é o banco que vai gerar o ID automaticamente
+		postagem.setVersao(null); //Toda postagem nova começa na versão 0 (definida pelo Hibernate)
+		
+		Postagem salva;
 		
-			return ResponseEntity.status(HttpStatus.CREATED).body(postagemRepository.save(postagem)); //Método de Persistência: indica que o objeto foi persistido (salvo) -> equivalente a INSERT INTO tb_postagens (titulo, texto) VALUES (?, ?)
-			 //Retorna o Status (código) 201 (Created) com o corpo da postagem que foi salva
+		try {
+			if (gravacaoAgrupadaPostagemService != null) {
+				salva = gravacaoAgrupadaPostagemService.gravar(postagem); //Entra no próximo grupo gravado em uma transação só (já indexa e atualiza o catálogo)
+			} else {
+				salva = postagemRepository.save(postagem); //Método de Persistência: indica que o objeto foi persistido (salvo) -> equivalente a INSERT INTO tb_postagens (titulo, texto) VALUES (?, ?)
+				buscaPostagemService.indexar(salva);
+				catalogoTemaService.postagensAlteradas(); //a quantidade de postagens do tema mudou
+			}
+		} catch (DataIntegrityViolationException e) {
+			throw referenciaInexistente(e);
 		}
 		
-		throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tema não existe!", null); //Se o tema não existir -> Bad Request 400 "O tema não existe"
-		//Ao inserir Null, ele só exibe o código do Status e a mensagem entre "" - se não colocássemos o Null, ele exibiria todo o código de erro
+		return ResponseEntity.status(HttpStatus.CREATED).eTag(etag(salva.getId(), salva.getVersao())).body(salva);
+		 //Retorna o Status (código) 201 (Created) com o corpo da postagem que foi salva
+	}
+	
+	/*Importação em lote: o corpo é um arquivo NDJSON (Content-Type application/x-ndjson), com uma postagem
+	 *no mesmo formato do POST por linha. As postagens são gravadas em batches JDBC pelo ImportacaoPostagemService
+	 *e a resposta traz o resultado de cada linha (id gerado ou mensagem de erro) - uma linha inválida não
+	 *impede a importação das demais.*/
+	@PostMapping(value = "/lote", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<ResultadoLote> postLote(InputStream corpo){
+		
+		try {
+			return ResponseEntity.ok(importacaoPostagemService.importar(corpo));
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Não foi possível ler o arquivo de importação!", null);
+		}
 	}
 	
 	/*Destrinchando: 
@@ -178,21 +325,219 @@ public class PostagemController {
 	
 	//Refazendo o Put - Trocando .map por ExistsById: 
 	
+	/*Atualização em um único comando (UPDATE ... WHERE id = ?), sem consultar antes a postagem, a versão ou o tema:
+	 *- Com If-Match, a versão do ETag entra no UPDATE (... AND versao = ?) - se a postagem mudou (ou não existe mais),
+	 *  nenhuma linha é alterada e a gravação é rejeitada com 412 (Precondition Failed), sem sobrescrever nada;
+	 *- Sem If-Match, a versão anterior é a do índice de busca, que normalmente é a do banco: o UPDATE com ela também é um
+	 *  comando só e a nova versão fica conhecida (para o índice e o ETag da resposta). Se o índice estiver atrás do banco
+	 *  (0 linhas alteradas), a postagem é gravada na versão em que estiver (0 linhas de novo = 404) e é lida de volta só
+	 *  para o índice, que só aceita uma atualização com versão mais nova que a indexada;
+	 *- Um tema (ou autor) inexistente é recusado pela chave estrangeira e respondido com 400.*/
 	@PutMapping //Atualizar uma postagem existente 
-	public ResponseEntity <Postagem> put(@Valid @RequestBody Postagem postagem){
+	public ResponseEntity <Postagem> put(@Valid @RequestBody Postagem postagem,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		
+		if(postagem.getTema() == null || postagem.getTema().getId() == null)
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tema não existe!", null);
+		
+		if(postagem.getId() == null) //sem id não há postagem para atualizar - o mesmo 404 de um id que não existe
+			return ResponseEntity.notFound().build();
+		
+		boolean condicional = ifMatch != null && !ifMatch.isBlank() && !ifMatch.trim().equals("*");
+		Long versao = condicional ? versaoDoEtag(postagem.getId(), ifMatch) : buscaPostagemService.versao(postagem.getId());
+		LocalDateTime data = LocalDateTime.now(); //o @UpdateTimestamp não vale para o UPDATE em JPQL
+		int alteradas;
+		
+		try {
+			alteradas = versao != null
+					? postagemRepository.atualizarNaVersao(postagem.getId(), versao, postagem.getTitulo(), postagem.getTexto(), data,
+							postagem.getTema(), postagem.getUsuario())
+					: 0;
+			
+			if(alteradas == 0 && !condicional) { //o índice não conhecia a versão gravada: grava sem conferir a versão
+				versao = null;
+				alteradas = postagemRepository.atualizar(postagem.getId(), postagem.getTitulo(), postagem.getTexto(), data,
+						postagem.getTema(), postagem.getUsuario());
+			}
+		} catch (DataIntegrityViolationException e) {
+			throw referenciaInexistente(e);
+		}
+		
+		if(alteradas == 0) {
+			if(condicional)
+				throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "A postagem foi alterada por outra requisição!", null);
+			
+			return ResponseEntity.notFound().build();
+		}
 		
-		if(postagemRepository.existsById(postagem.getId())) {
+		postagem.setData(data);
+		postagem.setVersao(versao != null ? versao + 1 : null);
+		catalogoTemaService.catalogo().buscar(postagem.getTema().getId()).ifPresent(postagem::setTema); //descrição do tema, sem ir ao banco
+		
+		fragmentosJsonPostagemService.invalidar(postagem.getId());
+		
+		if(versao != null)
+			buscaPostagemService.indexar(postagem);
+		else
+			postagemService.buscarPorId(postagem.getId()).ifPresent(buscaPostagemService::indexar); //o índice precisa da versão gravada, que só o banco sabe
+		
+		catalogoTemaService.postagensAlteradas(); //a postagem pode ter mudado de tema
+		
+		ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.OK);
+		
+		if(versao != null)
+			resposta.eTag(etag(postagem.getId(), postagem.getVersao()));
+		
+		return resposta.body(postagem);
+	}
+	
+	/*Atualização parcial (JSON Merge Patch, RFC 7396): o corpo traz só os atributos que mudam - por exemplo {"titulo": "Novo título"}.
+	 *- O UPDATE contém apenas as colunas enviadas (além da data e da versão), sem regravar o texto nem as chaves estrangeiras;
+	 *- Os atributos passam pelas mesmas validações da Postagem; "usuario": null retira o autor, e o tema não pode ser retirado;
+	 *- If-Match funciona como no PUT (412 se a postagem mudou), e a resposta é 204 com o novo ETag. Sem If-Match, a versão
+	 *  anterior é a do índice de busca, como no PUT;
+	 *- O índice de busca recebe só o que mudou (alterar); a postagem só é lida de volta quando o índice não estava na versão
+	 *  anterior e mudou algo que ele guarda (título, texto, tema ou autor).*/
+	@PatchMapping(value = "/{id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody JsonNode alteracoes,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		
+		Map<String, Object> campos = camposAlterados(alteracoes);
+		
+		boolean condicional = ifMatch != null && !ifMatch.isBlank() && !ifMatch.trim().equals("*");
+		Long versao = condicional ? versaoDoEtag(id, ifMatch) : buscaPostagemService.versao(id);
+		LocalDateTime data = LocalDateTime.now();
+		int alteradas;
+		
+		try {
+			alteradas = postagemRepository.atualizarCampos(id, versao, campos, data);
+			
+			if(alteradas == 0 && !condicional && versao != null) { //o índice não conhecia a versão gravada: grava sem conferir a versão
+				versao = null;
+				alteradas = postagemRepository.atualizarCampos(id, null, campos, data);
+			}
+		} catch (DataIntegrityViolationException e) {
+			throw referenciaInexistente(e);
+		}
+		
+		if(alteradas == 0) {
+			if(condicional)
+				throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "A postagem foi alterada por outra requisição!", null);
+			
+			return ResponseEntity.notFound().build();
+		}
+		
+		fragmentosJsonPostagemService.invalidar(id);
+		
+		boolean indexada = versao != null && buscaPostagemService.alterar(id, versao, campos, data);
+		
+		//o índice guarda o título, o texto, o tema e o autor
+		if(!indexada && (campos.containsKey("titulo") || campos.containsKey("texto") || campos.containsKey("tema")
+				|| campos.containsKey("usuario")))
+			postagemService.buscarPorId(id).ifPresent(buscaPostagemService::indexar);
+		
+		if(campos.containsKey("tema"))
+			catalogoTemaService.postagensAlteradas(); //a postagem mudou de tema
+		
+		ResponseEntity.HeadersBuilder<?> resposta = ResponseEntity.noContent();
+		
+		if(versao != null)
+			resposta.eTag(etag(id, versao + 1));
+		
+		return resposta.build();
+	}
+	
+	//Converte o corpo do PATCH em atributo -> novo valor, aplicando as validações da Postagem a cada atributo enviado
+	private Map<String, Object> camposAlterados(JsonNode alteracoes) {
+		
+		if(alteracoes == null || !alteracoes.isObject())
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O corpo deve ser um objeto JSON!", null);
+		
+		Map<String, Object> campos = new LinkedHashMap<>();
+		
+		alteracoes.properties().forEach(campo -> {
 			
-			if(temaRepository.existsById(postagem.getTema().getId())) { 
+			JsonNode valor = campo.getValue();
 			
-				return ResponseEntity.status(HttpStatus.OK).body(postagemRepository.save(postagem));
+			switch (campo.getKey()) {
+			case "titulo", "texto" -> {
+				String texto = valor.isTextual() ? valor.asText() : null;
+				String violacoes = validator.validateValue(Postagem.class, campo.getKey(), texto).stream()
+						.map(ConstraintViolation::getMessage)
+						.sorted()
+						.collect(Collectors.joining(" "));
+				
+				if(!violacoes.isEmpty())
+					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violacoes, null);
+				
+				campos.put(campo.getKey(), texto);
+			}
+			case "tema" -> {
+				if(!valor.path("id").canConvertToLong())
+					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tema não existe!", null);
+				
+				Tema tema = new Tema();
+				tema.setId(valor.path("id").asLong());
+				campos.put("tema", tema);
 			}
+			case "usuario" -> {
+				if(valor.isNull()) {
+					campos.put("usuario", null);
+				} else if(valor.path("id").canConvertToLong()) {
+					Usuario usuario = new Usuario();
+					usuario.setId(valor.path("id").asLong());
+					campos.put("usuario", usuario);
+				} else {
+					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O usuário não existe!", null);
+				}
+			}
+			case "id", "data", "versao" -> {
+				//definidos pelo sistema - ignorados, como no PUT
+			}
+			default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O atributo " + campo.getKey() + " não existe!", null);
+			}
+		});
+		
+		if(campos.isEmpty())
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nenhum atributo para alterar!", null);
+		
+		return campos;
+	}
 	
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tema não existe!", null);
+	/*Violação de chave estrangeira: o tema (ou o autor) informado não existe. A chave é reconhecida pelo nome
+	 *(migração V4); qualquer outra violação (NOT NULL, tamanho de coluna...) não é culpa do cliente e segue como erro.*/
+	private static RuntimeException referenciaInexistente(DataIntegrityViolationException e) {
+		
+		String causa = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+		
+		if (causa.contains("fk_postagens_tema"))
+			return new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tema não existe!", null);
+		
+		if (causa.contains("fk_postagens_usuario"))
+			return new ResponseStatusException(HttpStatus.BAD_REQUEST, "O usuário não existe!", null);
 		
+		return e;
+	}
+	
+	//ETag forte no formato "id-versao"
+	private static String etag(Long id, Long versao) {
+		return "\"" + id + "-" + versao + "\"";
+	}
+	
+	private static Long versaoDoEtag(Long id, String ifMatch) {
+		
+		String valor = ifMatch.trim();
+		String prefixo = "\"" + id + "-";
+		
+		if (valor.startsWith(prefixo) && valor.endsWith("\"") && valor.length() > prefixo.length() + 1) {
+			try {
+				return Long.valueOf(valor.substring(prefixo.length(), valor.length() - 1));
+			} catch (NumberFormatException e) {
+				// cai no 412 abaixo
+			}
 		}
-
-		return ResponseEntity.notFound().build();
+		
+		throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "O ETag informado não corresponde a esta postagem!", null);
 	}
 
 	@ResponseStatus(HttpStatus.NO_CONTENT) // Define o status de resposta como 204 (No Content)
@@ -203,6 +548,9 @@ public class PostagemController {
 		if (postagem.isEmpty()) // Verifica se a postagem existe
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND); // Se a postagem não existir, lança uma exceção com status 404 (Not Found)
 		postagemRepository.deleteById(id); // Se existir, deleta a postagem pelo ID
+		buscaPostagemService.remover(id); // e retira a postagem do índice de busca
+		fragmentosJsonPostagemService.invalidar(id); // e descarta o JSON dela guardado em cache
+		catalogoTemaService.postagensAlteradas(); // a quantidade de postagens do tema mudou
 		// equivalente ao DELETE FROM tb_postagens WHERE id = ?;
 	}
 }
@@ -1,7 +1,6 @@
 package com.generation.blogpessoal.controller;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -14,13 +13,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 
+import com.generation.blogpessoal.model.CursorPostagem;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.PostagemResumo;
 import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
 import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.BuscaPostagemService;
+import com.generation.blogpessoal.service.CatalogoTemaService;
+import com.generation.blogpessoal.service.FragmentosJsonPostagemService;
+import com.generation.blogpessoal.service.PostagemService;
+import com.generation.blogpessoal.service.TemaService;
 
 import jakarta.validation.Valid;
 
@@ -32,47 +42,125 @@ public class TemaController {
 	@Autowired
 	private TemaRepository temaRepository;
 	
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+	
+	@Autowired
+	private BuscaPostagemService buscaPostagemService;
+	
+	@Autowired
+	private FragmentosJsonPostagemService fragmentosJsonPostagemService;
+	
+	@Autowired
+	private TemaService temaService;
+	
+	@Autowired
+	private PostagemService postagemService;
+	
+	private static final int LIMITE_PADRAO = 20;
+	private static final int LIMITE_MAXIMO = 100;
+	
+	/*As leituras são respondidas pelo catálogo em memória, com o ETag do contador de alterações dos temas e das postagens.
+	 *Quando o cliente envia If-None-Match com esse mesmo ETag, checkNotModified marca a resposta como 304 Not Modified
+	 *e o método devolve antes de montar o corpo - as quantidades de postagens só são recalculadas para uma resposta 200.
+	 *
+	 *Cada tema vem resumido (id, descrição e quantidade de postagens): antes a resposta trazia a lista completa
+	 *de postagens de cada tema, e o tamanho dela crescia junto com o blog. As postagens de um tema são
+	 *listadas, paginadas, em GET /temas/{id}/postagens.*/
+	
 	@GetMapping
-	public ResponseEntity<List<Tema>> getAll(){
-		return ResponseEntity.ok(temaRepository.findAll());
+	public ResponseEntity<List<TemaResumo>> getAll(WebRequest request){
+		String etag = catalogoTemaService.etag();
+		
+		if (request.checkNotModified(etag))
+			return null;
+		
+		return ResponseEntity.ok().eTag(etag).body(temaService.listar());
 	}
 	
+	/*A existência do tema é conferida (no catálogo) antes do If-None-Match: um tema apagado responde 404, e não 304,
+	 *mesmo para um cliente que ainda tem o ETag de quando ele existia.*/
 	@GetMapping("/{id}")
-	public ResponseEntity<Tema> getById(@PathVariable Long id){
-		return temaRepository.findById(id)
-				.map(resposta -> ResponseEntity.ok(resposta))
+	public ResponseEntity<TemaResumo> getById(@PathVariable Long id, WebRequest request){
+		
+		if (!temaService.existe(id))
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		
+		String etag = catalogoTemaService.etag(id);
+		
+		if (request.checkNotModified(etag))
+			return null;
+		
+		return temaService.buscarPorId(id)
+				.map(resposta -> ResponseEntity.ok().eTag(etag).body(resposta))
 				.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
 	}
 	
 	@GetMapping("/descricao/{descricao}")
-	public ResponseEntity<List<Tema>> getByDescricao(@PathVariable String descricao){
-		return ResponseEntity.ok(temaRepository.findAllByDescricaoContainingIgnoreCase(descricao));
-			
+	public ResponseEntity<List<TemaResumo>> getByDescricao(@PathVariable String descricao, WebRequest request){
+		String etag = catalogoTemaService.etag();
+		
+		if (request.checkNotModified(etag))
+			return null;
+		
+		return ResponseEntity.ok().eTag(etag).body(temaService.buscarPorDescricao(descricao));
+	}
+	
+	/*Postagens do tema, com a mesma paginação por cursor da listagem GET /postagens ("limite" e "apos").
+	 *A existência do tema é conferida no catálogo em memória: a única transação da requisição é a da listagem.*/
+	@GetMapping("/{id}/postagens")
+	public ResponseEntity<Pagina<PostagemResumo>> getPostagens(@PathVariable Long id,
+			@RequestParam(required = false) String apos, @RequestParam(defaultValue = "" + LIMITE_PADRAO) int limite){
+		
+		if (!temaService.existe(id))
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		
+		int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+		CursorPostagem cursor = null;
+		
+		if (apos != null && !apos.isBlank()) {
+			try {
+				cursor = CursorPostagem.decodificar(apos);
+			} catch (IllegalArgumentException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido!", null);
+			}
+		}
+		
+		return ResponseEntity.ok(postagemService.listarPorTema(id, cursor, tamanho));
 	}
 	
 	@PostMapping
 	public ResponseEntity<Tema> post(@Valid @RequestBody Tema tema){
 		tema.setId(null);
 		
-		return ResponseEntity.status(HttpStatus.CREATED).body(temaRepository.save(tema));
+		Tema salvo = temaRepository.save(tema);
+		catalogoTemaService.registrar(salvo);
+		
+		return ResponseEntity.status(HttpStatus.CREATED).body(salvo);
 		
 	}
 	
 	@PutMapping
 	public ResponseEntity<Tema> put(@Valid @RequestBody Tema tema){
-		return temaRepository.findById(tema.getId())
-				.map(resposta -> ResponseEntity.status(HttpStatus.OK)
-						.body(temaRepository.save(tema)))
-				.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+		
+		if (!catalogoTemaService.existe(tema.getId()))
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		
+		Tema atualizado = temaRepository.save(tema);
+		catalogoTemaService.registrar(atualizado);
+		
+		return ResponseEntity.status(HttpStatus.OK).body(atualizado);
 	}
 	
 	@ResponseStatus(HttpStatus.NO_CONTENT)
 	@DeleteMapping("/{id}")
 	public void delete(@PathVariable Long id) {
-		Optional<Tema> tema = temaRepository.findById(id);
-		if(tema.isEmpty())
+		// As postagens do tema são apagadas junto (DELETE em massa); depois do commit, elas também precisam sair do índice de busca
+		if (!temaService.apagar(id))
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
 		
-		temaRepository.deleteById(id);
+		buscaPostagemService.removerPorTema(id);
+		fragmentosJsonPostagemService.invalidarPorTema(id);
+		catalogoTemaService.remover(id);
 	}
 }
\ No newline at end of file
@@ -1,21 +1,29 @@
 package com.generation.blogpessoal.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import java.security.Principal;
 import java.util.Optional;
 
+import com.generation.blogpessoal.model.Pagina;
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioResumo;
+import com.generation.blogpessoal.service.BuscaPostagemService;
+import com.generation.blogpessoal.service.CatalogoTemaService;
+import com.generation.blogpessoal.service.FragmentosJsonPostagemService;
 import com.generation.blogpessoal.service.UsuarioService;
 import com.generation.blogpessoal.model.UsuarioLogin;
 
@@ -29,9 +37,36 @@ public class UsuarioController {
 	@Autowired
 	private UsuarioService usuarioService;
 	
+	@Autowired
+	private BuscaPostagemService buscaPostagemService;
+	
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+	
+	@Autowired
+	private FragmentosJsonPostagemService fragmentosJsonPostagemService;
+	
+	private static final int LIMITE_PADRAO = 20;
+	private static final int LIMITE_MAXIMO = 100;
+	
+	/*Diretório de usuários, paginado como a listagem de postagens: "limite" por página e o cursor "proximo"
+	 *devolvido no parâmetro "apos". Cada usuário vem resumido (sem a senha e sem as postagens).*/
 	@GetMapping("/all")
-	public ResponseEntity<List<Usuario>> getAll(){
-		return ResponseEntity.ok(usuarioService.getAll());
+	public ResponseEntity<Pagina<UsuarioResumo>> getAll(@RequestParam(required = false) String apos,
+			@RequestParam(defaultValue = "" + LIMITE_PADRAO) int limite){
+		
+		int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+		Long ultimo = null;
+		
+		if (apos != null && !apos.isBlank()) {
+			try {
+				ultimo = Long.valueOf(apos);
+			} catch (NumberFormatException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido!", null);
+			}
+		}
+		
+		return ResponseEntity.ok(usuarioService.getAll(ultimo, tamanho));
 	}
 
 	
@@ -56,6 +91,20 @@ public class UsuarioController {
 				.orElse(ResponseEntity.notFound().build());
 	}
 	
+	/*Apaga a conta do usuário autenticado e todas as postagens dele (403 para a conta de outro usuário).
+	 *Depois do commit, as postagens saem do índice de busca e as quantidades por tema são recalculadas.*/
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	@DeleteMapping("/{id}")
+	public void delete(@PathVariable Long id, Principal principal){
+		
+		if (!usuarioService.apagar(id, principal.getName()))
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		
+		buscaPostagemService.removerPorAutor(id);
+		fragmentosJsonPostagemService.invalidarPorAutor(id);
+		catalogoTemaService.postagensAlteradas();
+	}
+	
 	@PostMapping("/logar")
 	public ResponseEntity<UsuarioLogin> autenticar(@Valid @RequestBody Optional<UsuarioLogin> usuarioLogin) {
 		return usuarioService.autenticarUsuario(usuarioLogin)
@@ -0,0 +1,46 @@
+package com.generation.blogpessoal.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*Cursor da paginação da busca textual.
+ *Guarda a posição do último resultado entregue - o par (relevancia, id), que é a ordem da busca - e é enviado
+ *ao cliente codificado em Base64, como o CursorPostagem. A próxima página só aceita os resultados que vêm depois
+ *desse par, então cada página guarda no máximo "limite" candidatos, por mais adiante que esteja (não existe um
+ *deslocamento para percorrer, nem para estourar).*/
+public record CursorBusca(double relevancia, Long id) {
+
+	private static final String SEPARADOR = "|";
+
+	public String codificar() {
+		String valor = relevancia + SEPARADOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static CursorBusca decodificar(String cursor) {
+
+		try {
+			String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separador = valor.lastIndexOf(SEPARADOR);
+
+			if (separador < 0) {
+				throw new IllegalArgumentException("Cursor inválido: " + cursor);
+			}
+
+			double relevancia = Double.parseDouble(valor.substring(0, separador));
+
+			if (!Double.isFinite(relevancia)) {
+				throw new IllegalArgumentException("Cursor inválido: " + cursor);
+			}
+
+			return new CursorBusca(relevancia, Long.valueOf(valor.substring(separador + 1)));
+
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+		}
+	}
+
+	public static CursorBusca de(ResultadoBusca resultado) {
+		return new CursorBusca(resultado.relevancia(), resultado.id());
+	}
+}
@@ -0,0 +1,43 @@
+package com.generation.blogpessoal.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/*Cursor da paginação por chave (keyset) das postagens.
+ *Guarda a posição do último registro entregue - o par (data, id) - e é enviado ao cliente
+ *codificado em Base64, para que ele trate o valor como um texto opaco.
+ *A próxima página é buscada com WHERE (data, id) < (cursor.data, cursor.id), então o custo
+ *da consulta é o mesmo na primeira ou na milésima página (não existe OFFSET para percorrer).*/
+public record CursorPostagem(LocalDateTime data, Long id) {
+
+	private static final String SEPARADOR = "|";
+
+	public String codificar() {
+		String valor = data + SEPARADOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static CursorPostagem decodificar(String cursor) {
+
+		try {
+			String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separador = valor.lastIndexOf(SEPARADOR);
+
+			if (separador < 0) {
+				throw new IllegalArgumentException("Cursor inválido: " + cursor);
+			}
+
+			return new CursorPostagem(LocalDateTime.parse(valor.substring(0, separador)),
+					Long.valueOf(valor.substring(separador + 1)));
+
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+		}
+	}
+
+	public static CursorPostagem de(PostagemResumo postagem) {
+		return new CursorPostagem(postagem.data(), postagem.id());
+	}
+}
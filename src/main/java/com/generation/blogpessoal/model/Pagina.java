@@ -0,0 +1,23 @@
+package com.generation.blogpessoal.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/*Envelope de uma página de resultados:
+ *itens -> registros da página atual
+ *proximo -> cursor opaco que o cliente devolve no parâmetro "apos" para buscar a próxima página
+ *(fica nulo quando não existem mais registros)*/
+public record Pagina<T>(List<T> itens, String proximo) {
+
+	/*Recebe até limite + 1 registros: se veio o registro extra, existe uma próxima página
+	 *e o cursor é gerado a partir do último item devolvido - assim não precisamos de um COUNT(*)*/
+	public static <T> Pagina<T> de(List<T> registros, int limite, Function<T, String> cursor) {
+
+		if (registros.size() <= limite) {
+			return new Pagina<>(registros, null);
+		}
+
+		List<T> itens = registros.subList(0, limite);
+		return new Pagina<>(itens, cursor.apply(itens.get(limite - 1)));
+	}
+}
@@ -2,6 +2,7 @@ package com.generation.blogpessoal.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -13,6 +14,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -103,6 +105,15 @@ public class Postagem {
 
 	// O @CreateTimestamp guarda a data e hora de criação da postagem
 
+	/*Controle de concorrência otimista: o Hibernate incrementa a versão a cada UPDATE e inclui
+	 *"WHERE versao = ?" no comando. Se outra requisição alterou a postagem antes, nenhuma linha é
+	 *atualizada e a gravação é rejeitada, em vez de sobrescrever a alteração da outra requisição.
+	 *A versão também é o ETag da postagem nas respostas da PostagemController.*/
+	@Version
+	@ColumnDefault("0") // postagens que já existiam no banco começam na versão 0
+	@Column(nullable = false)
+	private Long versao;
+
 	@ManyToOne
 	@JsonIgnoreProperties("postagem")
 	private Tema tema;
@@ -127,7 +138,7 @@ public class Postagem {
 		this.usuario = usuario;
 	}
 
-	public long getId() {
+	public Long getId() {
 		return id;
 	}
 
@@ -155,6 +166,14 @@ public class Postagem {
 		this.texto = texto;
 	}
 
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
+
 	public LocalDateTime getData() {
 		return data;
 	}
@@ -0,0 +1,12 @@
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+
+/*Projeção usada nas consultas de leitura das postagens.
+ *Traz somente as colunas que o cliente exibe, já "achatadas": em vez dos objetos Tema e Usuario completos
+ *(com a senha e a foto do autor), vêm apenas o id e a descrição do tema e o id e o nome do autor.
+ *É preenchida direto pelo JPQL (SELECT new ...) em uma única consulta com JOIN - sem carregar entidades
+ *e sem os SELECTs extras que o @ManyToOne (EAGER) dispara para cada tema e usuário diferentes.*/
+public record PostagemResumo(Long id, String titulo, String texto, LocalDateTime data, Long versao, Long temaId,
+		String temaDescricao, Long autorId, String autorNome) {
+}
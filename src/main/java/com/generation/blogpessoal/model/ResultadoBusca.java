@@ -0,0 +1,9 @@
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+
+/*Item devolvido pela busca textual de postagens.
+ *trecho -> início do texto da postagem, para exibição na lista de resultados
+ *relevancia -> pontuação da postagem para a consulta (quanto maior, mais relevante)*/
+public record ResultadoBusca(Long id, String titulo, String trecho, LocalDateTime data, double relevancia) {
+}
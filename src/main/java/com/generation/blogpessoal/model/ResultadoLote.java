@@ -0,0 +1,14 @@
+package com.generation.blogpessoal.model;
+
+import java.util.List;
+
+/*Resposta da importação em lote de postagens (POST /postagens/lote):
+ *inseridas / rejeitadas -> totais da importação
+ *linhas -> resultado de cada linha do arquivo, na mesma ordem do envio*/
+public record ResultadoLote(int inseridas, int rejeitadas, List<Linha> linhas) {
+
+	/*Resultado de uma linha: o id gerado, quando a postagem foi gravada,
+	 *ou a mensagem de erro, quando a linha foi rejeitada (as demais linhas continuam sendo importadas)*/
+	public record Linha(int linha, Long id, String erro) {
+	}
+}
@@ -2,9 +2,12 @@ package com.generation.blogpessoal.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -18,6 +21,8 @@ import jakarta.validation.constraints.Size;
 
 @Entity
 @Table(name = "tb_temas") // Define o nome da tabela que será criada no db
+@Cacheable // Guardado no cache de segundo nível do Hibernate (os temas quase nunca mudam) - limites em cache-hibernate.conf
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "temas")
 public class Tema {
 	
 @Id  // PRIMARY KEY(id) // indica que o atributo id é a chave primária
@@ -31,12 +36,13 @@ private String descricao;
 
 //Configurando a relação Tema - Postagem:
 
-@OneToMany(fetch = FetchType.LAZY, mappedBy = "tema", cascade = CascadeType.REMOVE)
+@OneToMany(fetch = FetchType.LAZY, mappedBy = "tema")
 /*Relação do tipo bidirecional -> Um tema para muitas postagens
  *Fetch: tipo de carregamento de dados -> significa que os dados só serão carregados quando forem  explicitamente requisitados pela primeira vez ao invés de serem carregados com a pesquisa principal (EAGER)
  *MappedBy: indica a chave estrangeira, no caso, o objeto "tema" da classe Postagem.model
- *Cascade: CascadeType.REMOVE → Controla a forma que as alterações em um objeto são refletidas - Neste caso: 
- *indica que quando um Tema for deletado (alterado) todas as Postagens associadas a esse Tema também serão removidas do db*/
+ *Cascade: o CascadeType.REMOVE apagaria as postagens junto com o tema, mas carregando todas elas na memória e
+ *apagando uma linha por vez. Por isso não é usado: o TemaService apaga as postagens do tema com um único DELETE em massa,
+ *na mesma transação que apaga o tema*/
 
 @JsonIgnoreProperties(value = "tema", allowSetters = true) //Ignora o get (que equivale a escrita) sem ignorar os Sets, que servirão para preencher a lista Postagem
 private List<Postagem> postagem;
@@ -0,0 +1,6 @@
+package com.generation.blogpessoal.model;
+
+/*Representação de um tema nas respostas da TemaController: só os dados do tema e a quantidade de postagens.
+ *As postagens do tema não vêm junto - elas são listadas, paginadas, em GET /temas/{id}/postagens.*/
+public record TemaResumo(Long id, String descricao, Long quantidadePostagens) {
+}
@@ -2,10 +2,14 @@ package com.generation.blogpessoal.model;
  
 import java.util.List;
  
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -19,6 +23,8 @@ import jakarta.validation.constraints.Size;
  
 @Entity
 @Table(name = "tb_usuarios")
+@Cacheable // Guardado no cache de segundo nível do Hibernate - limites em cache-hibernate.conf
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 public class Usuario {
  
 	@Id
@@ -31,16 +37,18 @@ public class Usuario {
 	@Schema(example = "email@email.com.br")
 	@NotBlank(message = "O Atributo Usuário é Obrigatório!")
 	@Email(message = "O Atributo Usuário deve ser um email válido!")
+	@Column(unique = true) // índice único uk_usuarios_usuario (migração V2) - o login busca o usuário por este campo
 	private String usuario;
  
 	@NotBlank(message = "O Atributo Senha é Obrigatório!")
 	@Size(min = 8, message = "A Senha deve ter no mínimo 8 caracteres")
 	private String senha;
  
+	@Column(length = 5000)
 	@Size(max = 5000, message = "O link da foto não pode ser maior do que 5000 caracteres")
 	private String foto;
  
-	@OneToMany(fetch = FetchType.LAZY, mappedBy = "usuario", cascade = CascadeType.REMOVE)
+	@OneToMany(fetch = FetchType.LAZY, mappedBy = "usuario") // sem CascadeType.REMOVE: o UsuarioService apaga as postagens com um DELETE em massa
 	@JsonIgnoreProperties(value = "usuario", allowSetters = true)
 	private List<Postagem> postagem;
  
@@ -0,0 +1,6 @@
+package com.generation.blogpessoal.model;
+
+/*Representação de um usuário no diretório GET /usuarios/all: dados públicos do perfil e a quantidade de postagens.
+ *A senha e a lista de postagens ficam de fora.*/
+public record UsuarioResumo(Long id, String nome, String usuario, String foto, Long quantidadePostagens) {
+}
@@ -1,10 +1,25 @@
 package com.generation.blogpessoal.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+
+import jakarta.persistence.QueryHint;
 
 /*A interface Repository é a responsável por criar os métodos que serão transformados pelo
  *Hibernate em instruções SQL, ou seja, se comunicando com o banco de dados*/
@@ -30,7 +45,7 @@ import com.generation.blogpessoal.model.Postagem;
  *e qual é o tipo do identificador, nesse caso, um Long, porque o atributo id foi declarado assim na classe Postagem.*/
 
 
-public interface PostagemRepository extends JpaRepository<Postagem, Long> {
+public interface PostagemRepository extends JpaRepository<Postagem, Long>, PostagemRepositoryCustom {
 /*Traduzindo: toda e qualquer operação que for feita utilizando Postagem Repository, deverá utilizar a tabela tb_postagens, 
 	definida na classe Postagem, e vai utilizar o atributo long (id) como chave primária.*/
 
@@ -55,6 +70,88 @@ public interface PostagemRepository extends JpaRepository<Postagem, Long> {
 
 	 public List <Postagem> findAllByTituloContainingIgnoreCase(String titulo); //Equivalente a: SELECT * FROM tb_postagens WHERE titulo LIKE "%?%";
 	 
+/*Consultas de leitura com projeção: o SELECT new monta um PostagemResumo por linha, com o tema e o autor
+ *trazidos no mesmo SELECT via LEFT JOIN (a postagem pode não ter autor). Uma consulta por requisição, não importa
+ *quantos temas e autores diferentes apareçam na lista.*/
+
+	String SELECT_RESUMO = "SELECT new com.generation.blogpessoal.model.PostagemResumo(p.id, p.titulo, p.texto, p.data, "
+			+ "p.versao, t.id, t.descricao, u.id, u.nome) FROM Postagem p LEFT JOIN p.tema t LEFT JOIN p.usuario u ";
+
+/*Paginação por chave (keyset): as postagens são ordenadas da mais recente para a mais antiga pelo par (data, id).
+ *O id desempata postagens gravadas no mesmo instante, garantindo uma ordem estável.
+ *O parâmetro Limit vira o LIMIT do SQL - pedimos sempre um registro a mais para saber se existe próxima página.*/
+
+	@Query(SELECT_RESUMO + "ORDER BY p.data DESC, p.id DESC")
+	public List<PostagemResumo> findPrimeiraPagina(Limit limite);
+
+	//Equivalente a: SELECT ... FROM tb_postagens WHERE data < ? OR (data = ? AND id < ?) ORDER BY data DESC, id DESC LIMIT ?
+	@Query(SELECT_RESUMO + "WHERE p.data < :data OR (p.data = :data AND p.id < :id) ORDER BY p.data DESC, p.id DESC")
+	public List<PostagemResumo> findPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Limit limite);
+
+	//Ids das postagens de um tema (a exclusão não precisa deles: é usado pelo apaga-um-a-um antigo, no ExclusaoEmMassaBenchmark)
+	@Query("SELECT p.id FROM Postagem p WHERE p.tema.id = :temaId")
+	public List<Long> findIdsByTemaId(@Param("temaId") Long temaId);
+
+	//Ids das postagens de um autor
+	@Query("SELECT p.id FROM Postagem p WHERE p.usuario.id = :usuarioId")
+	public List<Long> findIdsByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+/*Exclusão em massa: um único DELETE ... WHERE tema_id = ? (ou usuario_id = ?), sem carregar as postagens.
+ *Usadas pelo TemaService e pelo UsuarioService, dentro da transação que também apaga o tema ou o usuário.*/
+
+	@Modifying
+	@Query("DELETE FROM Postagem p WHERE p.tema.id = :temaId")
+	public int deleteByTemaId(@Param("temaId") Long temaId);
+
+	@Modifying
+	@Query("DELETE FROM Postagem p WHERE p.usuario.id = :usuarioId")
+	public int deleteByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+	//Postagens de um tema, na mesma ordem e com o mesmo cursor da listagem geral (índice idx_postagens_tema_data)
+	@Query(SELECT_RESUMO + "WHERE t.id = :temaId ORDER BY p.data DESC, p.id DESC")
+	public List<PostagemResumo> findPrimeiraPaginaPorTema(@Param("temaId") Long temaId, Limit limite);
+
+	@Query(SELECT_RESUMO + "WHERE t.id = :temaId AND (p.data < :data OR (p.data = :data AND p.id < :id)) ORDER BY p.data DESC, p.id DESC")
+	public List<PostagemResumo> findPaginaAposPorTema(@Param("temaId") Long temaId, @Param("data") LocalDateTime data,
+			@Param("id") Long id, Limit limite);
+
+/*Atualização em um único comando: UPDATE ... WHERE id = ? direto no banco, sem o SELECT que o save() (merge) faz antes.
+ *O tema e o autor são gravados só pelo id (a chave estrangeira confere se existem) e o retorno é a quantidade de
+ *linhas alteradas - 0 quando a postagem não existe ou, na versão com If-Match, quando já está em outra versão.*/
+
+	String UPDATE_POSTAGEM = "UPDATE Postagem p SET p.titulo = :titulo, p.texto = :texto, p.data = :data, "
+			+ "p.tema = :tema, p.usuario = :usuario, p.versao = p.versao + 1 WHERE p.id = :id";
+
+	@Transactional
+	@Modifying
+	@Query(UPDATE_POSTAGEM)
+	public int atualizar(@Param("id") Long id, @Param("titulo") String titulo, @Param("texto") String texto,
+			@Param("data") LocalDateTime data, @Param("tema") Tema tema, @Param("usuario") Usuario usuario);
+
+	@Transactional
+	@Modifying
+	@Query(UPDATE_POSTAGEM + " AND p.versao = :versao")
+	public int atualizarNaVersao(@Param("id") Long id, @Param("versao") Long versao, @Param("titulo") String titulo,
+			@Param("texto") String texto, @Param("data") LocalDateTime data, @Param("tema") Tema tema,
+			@Param("usuario") Usuario usuario);
+
+	@Query(SELECT_RESUMO + "WHERE p.id = :id")
+	public Optional<PostagemResumo> findResumoById(@Param("id") Long id);
+
+	@Query(SELECT_RESUMO + "WHERE LOWER(p.titulo) LIKE LOWER(CONCAT('%', :titulo, '%')) ORDER BY p.data DESC, p.id DESC")
+	public List<PostagemResumo> findResumosByTitulo(@Param("titulo") String titulo);
+
+/*Leitura de todas as postagens para exportação, sem montar a lista inteira na memória: o Stream vai lendo
+ *o ResultSet aos poucos, FETCH_SIZE_EXPORTACAO linhas por ida ao banco. Como o resultado é uma projeção
+ *(e não entidades), o Hibernate não guarda nada no contexto de persistência e o uso de memória não cresce
+ *com o tamanho da tabela. Precisa ser chamado dentro de uma transação, e o Stream precisa ser fechado.*/
+
+	int FETCH_SIZE_EXPORTACAO = 1000;
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + FETCH_SIZE_EXPORTACAO))
+	@Query(SELECT_RESUMO + "ORDER BY p.id")
+	public Stream<PostagemResumo> streamResumos();
+
 }
 
 
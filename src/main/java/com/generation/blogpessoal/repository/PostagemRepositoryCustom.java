@@ -0,0 +1,13 @@
+package com.generation.blogpessoal.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/*Consultas da PostagemRepository que não cabem em um @Query fixo (implementadas em PostagemRepositoryImpl)*/
+public interface PostagemRepositoryCustom {
+
+	/*UPDATE só das colunas informadas em "campos" (nome do atributo -> novo valor), além da data e da versão.
+	 *Com "versao" diferente de nulo, a postagem só é alterada se ainda estiver nessa versão.
+	 *Devolve a quantidade de linhas alteradas (0 quando a postagem não existe ou mudou de versão).*/
+	int atualizarCampos(Long id, Long versao, Map<String, Object> campos, LocalDateTime data);
+}
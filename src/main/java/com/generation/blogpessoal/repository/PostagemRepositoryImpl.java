@@ -0,0 +1,53 @@
+package com.generation.blogpessoal.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.generation.blogpessoal.model.Postagem;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/*Implementação da PostagemRepositoryCustom - o Spring Data junta estes métodos aos da PostagemRepository.
+ *
+ *O UPDATE é montado com a Criteria API para conter só as colunas que o PATCH alterou: mudar o título de uma postagem
+ *não regrava o texto (até 1000 caracteres) nem as chaves do tema e do autor - menos dados escritos no banco e
+ *enviados às réplicas.*/
+public class PostagemRepositoryImpl implements PostagemRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public int atualizarCampos(Long id, Long versao, Map<String, Object> campos, LocalDateTime data) {
+
+		CriteriaBuilder criteria = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Postagem> update = criteria.createCriteriaUpdate(Postagem.class);
+		Root<Postagem> postagem = update.from(Postagem.class);
+
+		campos.forEach((atributo, valor) -> update.set((Path) postagem.get(atributo), valor));
+
+		Path<Long> versaoAtual = postagem.get("versao");
+		update.set(postagem.<LocalDateTime>get("data"), data);
+		update.set(versaoAtual, criteria.sum(versaoAtual, 1L));
+
+		Predicate filtro = criteria.equal(postagem.get("id"), id);
+
+		if (versao != null) {
+			filtro = criteria.and(filtro, criteria.equal(versaoAtual, versao));
+		}
+
+		update.where(filtro);
+
+		return entityManager.createQuery(update).executeUpdate();
+	}
+}
@@ -2,16 +2,36 @@ package com.generation.blogpessoal.repository;
 
 import java.util.List; 
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param; //
 
 import com.generation.blogpessoal.model.Tema;// Importando a classe Tema da model
+import com.generation.blogpessoal.model.TemaResumo;
+
+import jakarta.persistence.QueryHint;
 
 
 
 public interface TemaRepository extends JpaRepository<Tema, Long>{ // Define a interface PostagemRepository que estende JpaRepository 
 	
 	// Query Methods
+	// HINT_CACHEABLE: o resultado (os ids encontrados) fica no cache de consultas do Hibernate até a tabela tb_temas ser alterada
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	public List<Tema> findAllByDescricaoContainingIgnoreCase(@Param("descricao")String descricao); // Método para buscar postagens por descricao, ignorando maiúsculas e minúsculas
 
+	// Todos os temas com a quantidade de postagens de cada um, em uma única consulta (sem carregar as postagens)
+	// Equivalente a: SELECT t.id, t.descricao, COUNT(p.id) FROM tb_temas t LEFT JOIN tb_postagens p ON p.tema_id = t.id GROUP BY t.id, t.descricao
+	@Query("SELECT new com.generation.blogpessoal.model.TemaResumo(t.id, t.descricao, COUNT(p.id)) "
+			+ "FROM Tema t LEFT JOIN t.postagem p GROUP BY t.id, t.descricao ORDER BY t.id")
+	public List<TemaResumo> findResumos();
+
+	// DELETE FROM tb_temas WHERE id = ? direto no banco - o deleteById carregaria o tema (e, com ele, as postagens) antes de apagar
+	@Modifying
+	@Query("DELETE FROM Tema t WHERE t.id = :id")
+	public int deleteTemaById(@Param("id") Long id);
+
 }
\ No newline at end of file
@@ -1,14 +1,39 @@
 package com.generation.blogpessoal.repository;
  
+import java.util.List;
 import java.util.Optional;
  
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
  
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioResumo;
+
+import jakarta.persistence.QueryHint;
  
 public interface UsuarioRepository extends JpaRepository<Usuario, Long>{
  
+	// O resultado fica no cache de consultas do Hibernate até a tabela tb_usuarios ser alterada
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<Usuario> findByUsuario(String usuario);
+
+	/*Página do diretório de usuários, paginada pelo id (WHERE id > :apos ORDER BY id, sem OFFSET).
+	 *A contagem é uma subconsulta por usuário da página, respondida pelo índice idx_postagens_usuario_data -
+	 *uma única instrução SQL por página, qualquer que seja o número de postagens.*/
+	@Query("SELECT new com.generation.blogpessoal.model.UsuarioResumo(u.id, u.nome, u.usuario, u.foto, "
+			+ "(SELECT COUNT(p.id) FROM Postagem p WHERE p.usuario = u)) "
+			+ "FROM Usuario u WHERE u.id > :apos ORDER BY u.id")
+	List<UsuarioResumo> findResumosApos(@Param("apos") Long apos, Limit limite);
+
+	// DELETE FROM tb_usuarios WHERE id = ? direto no banco, sem carregar o usuário e as postagens dele
+	@Modifying
+	@Query("DELETE FROM Usuario u WHERE u.id = :id")
+	int deleteUsuarioById(@Param("id") Long id);
  
 }
 
@@ -65,12 +65,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     
     private void processJwtAuthentication(HttpServletRequest request, String token) {
         
-    	String username = jwtService.extractUsername(token);
+    	// Parse e verificação da assinatura acontecem uma única vez por token (e só na primeira requisição que o usa)
+    	TokenVerificado tokenVerificado = jwtService.verificarToken(token);
+    	String username = tokenVerificado.usuario();
         
         if (username != null && !username.trim().isEmpty()) {
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
             
-            if (jwtService.validateToken(token, userDetails)) {
+            if (jwtService.validateToken(tokenVerificado, userDetails)) {
             	
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(
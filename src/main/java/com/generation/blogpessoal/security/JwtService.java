@@ -1,19 +1,34 @@
 package com.generation.blogpessoal.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.github.cdimascio.dotenv.Dotenv;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Component
 public class JwtService {
@@ -32,33 +47,111 @@ public class JwtService {
    
     private static final Duration EXPIRATION_DURATION = Duration.ofMinutes(60);
     
+    private static final long VERIFIED_TOKENS_CACHE_SIZE = 10_000;
+    
     private final SecretKey signingKey;
     
-    public JwtService() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
+    // O parser é imutável e thread-safe: é montado uma vez só, e não a cada token verificado
+    private final JwtParser parser;
+    
+    /* Tokens cuja assinatura já foi conferida, indexados pelo hash SHA-256 do token (o token em si não fica guardado).
+     * Cada entrada expira junto com o próprio token (claim exp), então um token vencido nunca é aceito pelo cache.
+     * Requisições repetidas com o mesmo Bearer token pulam a decodificação e a verificação HMAC. */
+    private final Cache<String, TokenVerificado> verifiedTokens;
+    
+    /* Tempo do parse + verificação HMAC de cada token que não estava no cache (resultado=valido|invalido).
+     * Os dois timers são registrados uma vez só, no construtor: no caminho da requisição só há o System.nanoTime e o record. */
+    private final Timer verificacaoValida;
+    private final Timer verificacaoInvalida;
+    
+    @Autowired
+    public JwtService(MeterRegistry meterRegistry) {
+        this(SECRET, VERIFIED_TOKENS_CACHE_SIZE, meterRegistry);
+    }
+    
+    // Sem registro de métricas (os timers do registro global ficam sem efeito enquanto nenhum registro é adicionado a ele)
+    public JwtService(String secret, long verifiedTokensCacheSize) {
+        this(secret, verifiedTokensCacheSize, Metrics.globalRegistry);
+    }
+    
+    public JwtService(String secret, long verifiedTokensCacheSize, MeterRegistry meterRegistry) {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = verifiedTokensCacheSize > 0
+            ? Caffeine.newBuilder()
+                .maximumSize(verifiedTokensCacheSize)
+                .expireAfter(Expiry.creating((String digest, TokenVerificado verificado) ->
+                    Duration.ofMillis(Math.max(0, verificado.expiracao().getTime() - System.currentTimeMillis()))))
+                .recordStats()
+                .build()
+            : null;
+        
+        this.verificacaoValida = Timer.builder("jwt.verificacao").tag("resultado", "valido").register(meterRegistry);
+        this.verificacaoInvalida = Timer.builder("jwt.verificacao").tag("resultado", "invalido").register(meterRegistry);
+        
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "tokens");
+        }
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(signingKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+    /* Faz o parse e a verificação da assinatura uma única vez e devolve o que a aplicação precisa do token.
+     * Lança as mesmas exceções do jjwt (ExpiredJwtException, SignatureException, MalformedJwtException...) para tokens inválidos. */
+    public TokenVerificado verificarToken(String token) {
+        
+        if (verifiedTokens == null) {
+            return parseAndVerify(token);
+        }
+        
+        String digest = digest(token);
+        TokenVerificado verificado = verifiedTokens.getIfPresent(digest);
+        
+        if (verificado == null) {
+            verificado = parseAndVerify(token);
+            
+            if (verificado.expiracao() != null) {
+                verifiedTokens.put(digest, verificado);
+            }
+        }
+        
+        return verificado;
+    }
+    
+    private TokenVerificado parseAndVerify(String token) {
+        long inicio = System.nanoTime();
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verificacaoValida.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return new TokenVerificado(claims.getSubject(), claims.getExpiration());
+        } catch (RuntimeException e) {
+            verificacaoInvalida.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
     }
 
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return verificarToken(token).usuario();
     }
 
     public Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
+        return verificarToken(token).expiracao();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        Claims claims = extractAllClaims(token);
-        return claims.getSubject().equals(userDetails.getUsername()) && 
-               claims.getExpiration().after(new Date());
+        return validateToken(verificarToken(token), userDetails);
+    }
+
+    public boolean validateToken(TokenVerificado token, UserDetails userDetails) {
+        return token.usuario() != null && token.usuario().equals(userDetails.getUsername()) && !token.expirado();
     }
 
     public String generateToken(String username) {
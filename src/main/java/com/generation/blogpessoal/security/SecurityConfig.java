@@ -1,9 +1,14 @@
 package com.generation.blogpessoal.security;
 
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -15,6 +20,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
@@ -25,15 +32,36 @@ public class SecurityConfig {
         "/usuarios/logar",
         "/usuarios/cadastrar",
         "/error/**",
-        "/", "/docs", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**"
+        "/", "/docs", "/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**",
+        // lido pelo balanceador, que não tem token; as métricas exigem token, a não ser na porta de gestão (abaixo)
+        "/actuator/health"
     };
 
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    /* Porta em que o actuator responde quando management.server.port separa a gestão da API (-1 se não separa).
+     * Essa porta fica só na rede interna, onde o Prometheus lê as métricas sem token; a porta real só é conhecida
+     * quando o servidor de gestão sobe (com management.server.port=0, ela é sorteada). */
+    private volatile int portaGestao = -1;
+
+    @EventListener
+    void servidorIniciado(WebServerInitializedEvent evento) {
+        if ("management".equals(evento.getApplicationContext().getServerNamespace())) {
+            portaGestao = evento.getWebServer().getPort();
+        }
+    }
+
+    // O bcrypt roda no pool limitado do SenhaPasswordEncoder, e não nas threads do Tomcat
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    PasswordEncoder passwordEncoder(
+            @Value("${blogpessoal.senhas.threads:0}") int threads,
+            @Value("${blogpessoal.senhas.fila:64}") int fila,
+            @Value("${blogpessoal.senhas.tentar-apos:1s}") Duration tentarApos,
+            MeterRegistry meterRegistry) {
+
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new SenhaPasswordEncoder(new BCryptPasswordEncoder(10), tamanho, fila, tentarApos, meterRegistry);
     }
 
     @Bean
@@ -50,7 +78,11 @@ public class SecurityConfig {
             
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
+                .requestMatchers(request -> request.getLocalPort() == portaGestao).permitAll()
                 .requestMatchers(HttpMethod.OPTIONS).permitAll()
+                // Respostas assíncronas (StreamingResponseBody) terminam em um novo dispatch, sem o token:
+                // a requisição original já foi autenticada e autorizada
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
             
@@ -0,0 +1,96 @@
+package com.generation.blogpessoal.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/*PasswordEncoder que executa o bcrypt em um pool de threads próprio e limitado.
+ *
+ *Cada encode/matches do bcrypt custa dezenas de milissegundos de CPU. Executado nas threads do Tomcat,
+ *uma rajada de logins ocupava todas elas e travava os demais endpoints. Aqui:
+ *- No máximo "threads" hashes rodam ao mesmo tempo (por padrão, um por núcleo);
+ *- No máximo "fila" hashes ficam esperando; com a fila cheia, a requisição é recusada na hora
+ *  com 503 e Retry-After (SobrecargaException), em vez de se acumular;
+ *- As métricas ficam em /actuator/metrics: executor.* (name=senhas) para a fila e as threads,
+ *  e senhas.hash (operacao=codificar|verificar) para o tempo de cada hash, incluindo a espera na fila.*/
+public class SenhaPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor executor;
+    private final Duration tentarApos;
+    private final Timer tempoCodificar;
+    private final Timer tempoVerificar;
+
+    public SenhaPasswordEncoder(PasswordEncoder delegado, int threads, int fila, Duration tentarApos,
+            MeterRegistry meterRegistry) {
+
+        this.delegado = delegado;
+        this.tentarApos = tentarApos;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("senhas-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "senhas");
+        this.tempoCodificar = Timer.builder("senhas.hash").tag("operacao", "codificar").register(meterRegistry);
+        this.tempoVerificar = Timer.builder("senhas.hash").tag("operacao", "verificar").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executar(() -> delegado.encode(rawPassword), tempoCodificar);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executar(() -> delegado.matches(rawPassword, encodedPassword), tempoVerificar);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T executar(Callable<T> tarefa, Timer tempo) {
+
+        long inicio = System.nanoTime();
+        Future<T> resultado;
+
+        try {
+            resultado = executor.submit(tarefa);
+        } catch (RejectedExecutionException e) {
+            throw new SobrecargaException("Servidor ocupado! Tente novamente em instantes.", tentarApos);
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido enquanto aguardava o hash da senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            tempo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+package com.generation.blogpessoal.security;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/*Recusa rápida quando não há capacidade para atender a requisição agora:
+ *o cliente recebe 503 (Service Unavailable) com o cabeçalho Retry-After, indicando em quantos segundos tentar de novo.*/
+public class SobrecargaException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long segundos;
+
+    public SobrecargaException(String mensagem, Duration tentarApos) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, mensagem, null);
+        this.segundos = Math.max(1, tentarApos.toSeconds());
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.set(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        return cabecalhos;
+    }
+}
@@ -0,0 +1,12 @@
+package com.generation.blogpessoal.security;
+
+import java.util.Date;
+
+/*Resultado da verificação de um token JWT: a assinatura já foi conferida e as informações
+ *de que a aplicação precisa (usuário e expiração) já foram extraídas das claims.*/
+public record TokenVerificado(String usuario, Date expiracao) {
+
+	public boolean expirado() {
+		return expiracao == null || !expiracao.after(new Date());
+	}
+}
@@ -3,34 +3,95 @@ package com.generation.blogpessoal.security;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.repository.UsuarioRepository;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
-	
+
 	@Autowired
 	private UsuarioRepository usuarioRepository;
 
+	/*Cache dos usuários autenticados: o JwtAuthFilter carrega o usuário do token em toda requisição,
+	 *e sem o cache isso seria um SELECT em tb_usuarios antes de qualquer endpoint trabalhar.
+	 *- É limitado em quantidade de usuários (os menos usados saem primeiro);
+	 *- Cada usuário expira depois do tempo de validade, mesmo que continue sendo usado;
+	 *- O UsuarioService invalida o usuário sempre que os dados dele são alterados.
+	 *As métricas de acertos, falhas e remoções ficam em /actuator/metrics/cache.* (cache=usuarios).
+	 *
+	 *O UserDetailsImpl pode ser compartilhado entre requisições porque não implementa CredentialsContainer,
+	 *então o Spring Security não apaga a senha dele depois da autenticação.*/
+	private final Cache<String, UserDetailsImpl> usuariosAutenticados;
+
+	public UserDetailsServiceImpl(@Value("${blogpessoal.cache.usuarios.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${blogpessoal.cache.usuarios.validade:5m}") Duration validade, MeterRegistry meterRegistry) {
+
+		this.usuariosAutenticados = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximo)
+				.expireAfterWrite(validade)
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, usuariosAutenticados, "usuarios");
+	}
+
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
 		if (username == null || username.trim().isEmpty()) {
 			throw new UsernameNotFoundException("Parece que o e-mail inserido não é válido ou está em branco! Verifique as informações e tente novamente.");
 		}
-		
+
+		UserDetailsImpl emCache = usuariosAutenticados.getIfPresent(username);
+
+		if (emCache != null) {
+			return emCache;
+		}
+
 		Optional<Usuario> usuario = usuarioRepository.findByUsuario(username);
 
 		if (usuario.isPresent()) {
-			return new UserDetailsImpl(usuario.get());
+			UserDetailsImpl userDetails = new UserDetailsImpl(usuario.get());
+			usuariosAutenticados.put(username, userDetails);
+			return userDetails;
 		}else {
 			throw new UsernameNotFoundException("Usuário não encontrado: " + username);
 		}
-			
+
+	}
+
+	/*Dentro de uma transação, o usuário sai do cache agora e de novo depois do commit: uma requisição que leu o usuário
+	 *no banco antes do commit (ainda com os dados antigos, ou ainda existindo) pode tê-lo colocado de volta no meio tempo.*/
+	public void invalidar(String username) {
+
+		if (username == null) {
+			return;
+		}
+
+		usuariosAutenticados.invalidate(username);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					usuariosAutenticados.invalidate(username);
+				}
+			});
+		}
 	}
-}
\ No newline at end of file
+}
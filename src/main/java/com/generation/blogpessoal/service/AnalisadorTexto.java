@@ -0,0 +1,84 @@
+package com.generation.blogpessoal.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*Transforma um texto em termos de busca:
+ *1 - Remove os acentos (canção -> cancao) e converte para minúsculas;
+ *2 - Quebra o texto em palavras (tudo que não é letra ou número separa as palavras);
+ *3 - Descarta palavras muito curtas e as palavras vazias do português (de, para, com...);
+ *4 - Reduz o plural para o singular (canções -> cancao, animais -> animal, casas -> casa).
+ *A mesma análise é aplicada nos textos indexados e na consulta, por isso "Canção" encontra "cancoes".*/
+public final class AnalisadorTexto {
+
+	private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final int TAMANHO_MINIMO = 2;
+
+	private static final Set<String> PALAVRAS_VAZIAS = Set.of(
+			"a", "ao", "aos", "as", "com", "como", "da", "das", "de", "do", "dos", "e", "ela", "elas", "ele", "eles",
+			"em", "entre", "era", "essa", "esse", "esta", "este", "eu", "foi", "ha", "isso", "isto", "ja", "la", "lhe",
+			"mais", "mas", "me", "mesmo", "meu", "minha", "muito", "na", "nas", "nem", "no", "nos", "nossa", "nosso",
+			"num", "numa", "o", "os", "ou", "para", "pela", "pelas", "pelo", "pelos", "por", "pra", "qual", "quando",
+			"que", "quem", "se", "sem", "ser", "seu", "sua", "sao", "so", "tambem", "te", "tem", "um", "uma", "umas",
+			"uns", "voce", "voces");
+
+	private AnalisadorTexto() {}
+
+	public static String normalizar(String texto) {
+		String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return semAcentos.toLowerCase(Locale.ROOT);
+	}
+
+	public static List<String> termos(String texto) {
+
+		List<String> termos = new ArrayList<>();
+
+		if (texto == null || texto.isBlank()) {
+			return termos;
+		}
+
+		for (String palavra : SEPARADORES.split(normalizar(texto))) {
+
+			if (palavra.length() < TAMANHO_MINIMO || PALAVRAS_VAZIAS.contains(palavra)) {
+				continue;
+			}
+
+			termos.add(singular(palavra));
+		}
+
+		return termos;
+	}
+
+	//Redução de plural inspirada no primeiro passo do algoritmo RSLP (Removedor de Sufixos da Língua Portuguesa)
+	static String singular(String palavra) {
+
+		int tamanho = palavra.length();
+
+		if (tamanho <= 3 || palavra.charAt(tamanho - 1) != 's') {
+			return palavra;
+		}
+
+		if (palavra.endsWith("oes") || palavra.endsWith("aes")) {
+			return palavra.substring(0, tamanho - 3) + "ao";
+		}
+		if ((palavra.endsWith("ais") || palavra.endsWith("eis")) && tamanho > 4) {
+			return palavra.substring(0, tamanho - 2) + "l";
+		}
+		if (palavra.endsWith("ns")) {
+			return palavra.substring(0, tamanho - 2) + "m";
+		}
+		if (palavra.endsWith("res") || palavra.endsWith("zes")) {
+			return palavra.substring(0, tamanho - 2);
+		}
+		if (palavra.endsWith("ss") || palavra.endsWith("us") || palavra.endsWith("is")) {
+			return palavra;
+		}
+
+		return palavra.substring(0, tamanho - 1);
+	}
+}
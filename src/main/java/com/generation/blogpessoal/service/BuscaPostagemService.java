@@ -0,0 +1,664 @@
+package com.generation.blogpessoal.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.generation.blogpessoal.model.CursorBusca;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.ResultadoBusca;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+/*Motor de busca textual das postagens, mantido em memória.
+ *
+ *Funciona como o índice remissivo de um livro (índice invertido): para cada termo guardamos a lista
+ *das postagens onde ele aparece e quantas vezes aparece. Assim a busca não precisa ler o texto de
+ *todas as postagens (como faz o LIKE '%termo%' no banco) - basta cruzar as listas dos termos da consulta.
+ *
+ *- O índice é montado quando a aplicação termina de subir e é atualizado pela PostagemController
+ *  a cada postagem criada, alterada ou apagada;
+ *- Cada postagem recebe um número interno crescente, então as listas de ocorrências ficam sempre
+ *  ordenadas e o cruzamento entre elas é feito com busca binária;
+ *- Uma postagem alterada ou apagada é apenas marcada como removida; quando as marcações passam de
+ *  FRACAO_COMPACTACAO do índice, as listas são compactadas e os documentos que sobraram são renumerados
+ *  (na mesma ordem), então as posições dos removidos não se acumulam;
+ *- Cada documento guarda a versão da postagem: uma atualização só entra no índice se for mais nova que a
+ *  indexada, e uma postagem apagada não volta. Assim duas alterações da mesma postagem, ou uma gravação
+ *  concorrente com a carga inicial, podem chegar em qualquer ordem sem deixar uma versão antiga no índice;
+ *- Cada documento também guarda o tema e o autor, para que a exclusão de um tema ou de um usuário retire as postagens
+ *  dele do índice (removerPorTema/removerPorAutor) sem que alguém precise listar os ids no banco. O tema e o autor
+ *  apagados ficam marcados, e uma gravação atrasada de uma postagem deles não volta ao índice;
+ *- A versão indexada também serve de versão anterior para o PUT e o PATCH sem If-Match, que assim sabem a versão
+ *  gravada sem reler a postagem; o PATCH atualiza no índice só o que mudou (alterar), desde que o índice esteja
+ *  exatamente na versão anterior;
+ *- A relevância usa o BM25 (a mesma fórmula de motores como o Lucene), com peso maior para o título.*/
+@Service
+public class BuscaPostagemService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BuscaPostagemService.class);
+
+	private static final int PESO_TITULO = 3;
+	private static final int FREQUENCIA_MAXIMA = Byte.MAX_VALUE;
+	private static final int TAMANHO_TRECHO = 200;
+	private static final int LOTE_CARGA = 1000;
+	private static final double FRACAO_COMPACTACAO = 0.25;
+
+	//Parâmetros do BM25: K1 controla a saturação da frequência do termo e B o peso do tamanho do documento
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+	private final Map<String, Ocorrencias> indice = new HashMap<>();
+	private final List<Documento> documentos = new ArrayList<>(); //a posição na lista é o número interno do documento
+	private final Map<Long, Integer> documentoPorPostagem = new HashMap<>();
+
+	//Postagens apagadas desde a última compactação (ou durante a carga), para que uma gravação atrasada não as traga de volta
+	private final Set<Long> apagadas = new HashSet<>();
+	private boolean carregando;
+
+	//Temas e autores apagados: os ids não são reaproveitados, então as marcações valem para sempre (e são poucas)
+	private final Set<Long> temasApagados = new HashSet<>();
+	private final Set<Long> autoresApagados = new HashSet<>();
+
+	private long comprimentoTotal;
+	private int removidos;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void carregarIndice() {
+
+		long inicio = System.currentTimeMillis();
+		definirCarregando(true);
+
+		try {
+			carregarLotes();
+		} finally {
+			definirCarregando(false);
+		}
+
+		LOGGER.info("Índice de busca carregado com {} postagens em {} ms", tamanho(), System.currentTimeMillis() - inicio);
+	}
+
+	private void carregarLotes() {
+
+		List<PostagemResumo> lote = postagemRepository.findPrimeiraPagina(Limit.of(LOTE_CARGA));
+
+		while (!lote.isEmpty()) {
+
+			lote.forEach(this::indexar);
+
+			PostagemResumo ultima = lote.get(lote.size() - 1);
+			lote = lote.size() < LOTE_CARGA ? List.of()
+					: postagemRepository.findPaginaApos(ultima.data(), ultima.id(), Limit.of(LOTE_CARGA));
+		}
+	}
+
+	private void definirCarregando(boolean valor) {
+
+		trava.writeLock().lock();
+		try {
+			carregando = valor;
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	//A postagem precisa trazer a versão gravada no banco - sem versão, conta como a versão 0
+	public void indexar(Postagem postagem) {
+		indexar(postagem.getId(), postagem.getVersao(), postagem.getTitulo(), postagem.getTexto(), postagem.getData(),
+				postagem.getTema() != null ? postagem.getTema().getId() : null,
+				postagem.getUsuario() != null ? postagem.getUsuario().getId() : null);
+	}
+
+	public void indexar(PostagemResumo postagem) {
+		indexar(postagem.id(), postagem.versao(), postagem.titulo(), postagem.texto(), postagem.data(), postagem.temaId(),
+				postagem.autorId());
+	}
+
+	private void indexar(Long id, Long versao, String titulo, String texto, LocalDateTime data, Long tema, Long autor) {
+
+		Map<String, Integer> frequencias = new HashMap<>();
+		AnalisadorTexto.termos(titulo).forEach(termo -> frequencias.merge(termo, PESO_TITULO, Integer::sum));
+		AnalisadorTexto.termos(texto).forEach(termo -> frequencias.merge(termo, 1, Integer::sum));
+
+		int comprimento = frequencias.values().stream().mapToInt(Integer::intValue).sum();
+		Documento documento = new Documento(id, versao == null ? 0 : versao, titulo, trecho(texto), data, comprimento, tema,
+				autor);
+
+		trava.writeLock().lock();
+		try {
+			Integer atual = documentoPorPostagem.get(id);
+
+			if (apagadas.contains(id) || atual != null && documentos.get(atual).versao() >= documento.versao()) {
+				return;
+			}
+
+			if (temasApagados.contains(tema) || autoresApagados.contains(autor)) {
+				removerDocumento(id);
+				return;
+			}
+
+			removerDocumento(id);
+
+			int numero = documentos.size();
+			documentos.add(documento);
+			documentoPorPostagem.put(documento.id(), numero);
+			comprimentoTotal += comprimento;
+
+			frequencias.forEach((termo, frequencia) -> indice.computeIfAbsent(termo, chave -> new Ocorrencias())
+					.adicionar(numero, Math.min(frequencia, FREQUENCIA_MAXIMA)));
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	//Versão indexada da postagem (null se ela não está no índice)
+	public Long versao(Long id) {
+
+		trava.readLock().lock();
+		try {
+			Integer numero = documentoPorPostagem.get(id);
+			return numero == null ? null : documentos.get(numero).versao();
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	/*Aplica ao índice uma alteração parcial que levou a postagem da versaoAnterior para a seguinte. Os campos são os do
+	 *PATCH, como no PostagemRepository.atualizarCampos: o que não está no mapa não mudou. Só vale se o índice estiver
+	 *exatamente na versaoAnterior - se não estiver (postagem fora do índice, ou outra alteração no meio do caminho),
+	 *devolve false e quem chamou indexa a postagem lida do banco.*/
+	public boolean alterar(Long id, long versaoAnterior, Map<String, Object> campos, LocalDateTime data) {
+
+		trava.writeLock().lock();
+		try {
+			Integer numero = documentoPorPostagem.get(id);
+
+			if (numero == null || documentos.get(numero).versao() != versaoAnterior) {
+				return false;
+			}
+
+			Documento atual = documentos.get(numero);
+			String titulo = (String) campos.get("titulo");
+			String texto = (String) campos.get("texto");
+			Long tema = campos.containsKey("tema") ? ((Tema) campos.get("tema")).getId() : atual.tema();
+			Long autor = atual.autor();
+
+			if (campos.containsKey("usuario")) {
+				autor = campos.get("usuario") != null ? ((Usuario) campos.get("usuario")).getId() : null;
+			}
+
+			if (temasApagados.contains(tema) || autoresApagados.contains(autor)) {
+				removerDocumento(id);
+			} else if (texto != null) {
+				indexar(id, versaoAnterior + 1, titulo != null ? titulo : atual.titulo(), texto, data, tema, autor);
+			} else {
+				retitular(numero, atual, versaoAnterior + 1, titulo, data, tema, autor);
+			}
+
+			return true;
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	/*Troca o título sem o texto, que o índice não guarda inteiro: só as listas dos termos do título antigo e do novo mudam,
+	 *e o documento mantém o número. Sem título novo, só a versão e a data mudam. Deve ser chamado com a trava de escrita.*/
+	private void retitular(int numero, Documento atual, long versao, String titulo, LocalDateTime data, Long tema, Long autor) {
+
+		int comprimento = atual.comprimento();
+
+		if (titulo != null) {
+			Map<String, Integer> diferencas = new HashMap<>();
+			AnalisadorTexto.termos(atual.titulo()).forEach(termo -> diferencas.merge(termo, -PESO_TITULO, Integer::sum));
+			AnalisadorTexto.termos(titulo).forEach(termo -> diferencas.merge(termo, PESO_TITULO, Integer::sum));
+
+			for (Map.Entry<String, Integer> diferenca : diferencas.entrySet()) {
+
+				if (diferenca.getValue() == 0) {
+					continue;
+				}
+
+				Ocorrencias ocorrencias = diferenca.getValue() > 0
+						? indice.computeIfAbsent(diferenca.getKey(), chave -> new Ocorrencias())
+						: indice.get(diferenca.getKey());
+
+				if (ocorrencias != null) {
+					ocorrencias.somar(numero, diferenca.getValue());
+				}
+				comprimento += diferenca.getValue();
+			}
+		}
+
+		comprimentoTotal += comprimento - atual.comprimento();
+		documentos.set(numero, new Documento(atual.id(), versao, titulo != null ? titulo : atual.titulo(), atual.trecho(),
+				data, comprimento, tema, autor));
+	}
+
+	public void remover(Long id) {
+
+		trava.writeLock().lock();
+		try {
+			apagadas.add(id);
+			removerDocumento(id);
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	//Chamado depois do commit da exclusão de um tema: as postagens dele foram apagadas junto, num DELETE em massa
+	public void removerPorTema(Long tema) {
+
+		trava.writeLock().lock();
+		try {
+			temasApagados.add(tema);
+			removerDocumentos(documento -> tema.equals(documento.tema()));
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	//Chamado depois do commit da exclusão de um usuário, que apaga as postagens dele junto
+	public void removerPorAutor(Long autor) {
+
+		trava.writeLock().lock();
+		try {
+			autoresApagados.add(autor);
+			removerDocumentos(documento -> autor.equals(documento.autor()));
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	public int tamanho() {
+
+		trava.readLock().lock();
+		try {
+			return documentoPorPostagem.size();
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	/*Devolve os resultados que vêm depois do cursor "apos" (ou desde o primeiro, se ele é nulo), ordenados pela relevância.
+	 *Todos os termos da consulta precisam aparecer na postagem (busca do tipo E).
+	 *Cada página guarda só limite + 1 candidatos, qualquer que seja a posição do cursor (veja posicao).*/
+	public Pagina<ResultadoBusca> buscar(String consulta, CursorBusca apos, int limite) {
+
+		List<String> termos = new ArrayList<>(new LinkedHashSet<>(AnalisadorTexto.termos(consulta)));
+
+		if (termos.isEmpty()) {
+			return new Pagina<>(List.of(), null);
+		}
+
+		trava.readLock().lock();
+		try {
+			List<Ocorrencias> listas = new ArrayList<>();
+
+			for (String termo : termos) {
+				Ocorrencias ocorrencias = indice.get(termo);
+
+				if (ocorrencias == null) {
+					return new Pagina<>(List.of(), null);
+				}
+				listas.add(ocorrencias);
+			}
+
+			//Percorremos a lista do termo mais raro e procuramos os documentos dela nas demais
+			listas.sort(Comparator.comparingInt(Ocorrencias::tamanho));
+
+			//Os candidatos que vêm antes do cursor (ou nele) já foram entregues; a fila guarda só a página e mais um
+			Candidato cursor = apos == null ? null : posicao(listas, apos);
+			PriorityQueue<Candidato> melhores = new PriorityQueue<>(Candidato.ORDEM);
+
+			for (Candidato candidato : (Iterable<Candidato>) () -> cruzar(listas)) {
+
+				if (cursor != null && Candidato.ORDEM.compare(candidato, cursor) >= 0) {
+					continue;
+				}
+
+				melhores.add(candidato);
+
+				if (melhores.size() > limite + 1) {
+					melhores.poll();
+				}
+			}
+
+			List<Candidato> ordenados = new ArrayList<>(melhores);
+			ordenados.sort(Candidato.ORDEM.reversed());
+
+			List<ResultadoBusca> resultados = new ArrayList<>(ordenados.size());
+
+			for (Candidato candidato : ordenados) {
+				Documento documento = documentos.get(candidato.documento());
+				resultados.add(new ResultadoBusca(documento.id(), documento.titulo(), documento.trecho(), documento.data(),
+						candidato.relevancia()));
+			}
+
+			return Pagina.de(resultados, limite, resultado -> CursorBusca.de(resultado).codificar());
+
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	//Deve ser chamado com a trava de escrita
+	private void removerDocumento(Long id) {
+
+		Integer numero = documentoPorPostagem.remove(id);
+
+		if (numero == null) {
+			return;
+		}
+
+		marcarRemovido(numero);
+		compactarSeNecessario();
+	}
+
+	//Percorre os documentos no próprio índice, sem montar uma lista de ids; a compactação fica para o fim. Com a trava de escrita
+	private void removerDocumentos(Predicate<Documento> filtro) {
+
+		for (int numero = 0; numero < documentos.size(); numero++) {
+			Documento documento = documentos.get(numero);
+
+			if (documento != null && filtro.test(documento)) {
+				documentoPorPostagem.remove(documento.id());
+				marcarRemovido(numero);
+			}
+		}
+
+		compactarSeNecessario();
+	}
+
+	private void marcarRemovido(int numero) {
+		Documento documento = documentos.set(numero, null);
+		comprimentoTotal -= documento.comprimento();
+		removidos++;
+	}
+
+	private void compactarSeNecessario() {
+		if (removidos > FRACAO_COMPACTACAO * Math.max(documentoPorPostagem.size(), LOTE_CARGA)) {
+			compactar();
+		}
+	}
+
+	/*Renumera os documentos que sobraram na ordem em que estavam - as listas de ocorrências continuam ordenadas - e
+	 *troca nas listas os números antigos pelos novos. O Candidato desempata pelo id da postagem, que a renumeração não muda.*/
+	private void compactar() {
+
+		int[] novoNumero = new int[documentos.size()];
+		List<Documento> mantidos = new ArrayList<>(documentoPorPostagem.size());
+
+		for (int numero = 0; numero < documentos.size(); numero++) {
+			Documento documento = documentos.get(numero);
+
+			if (documento == null) {
+				novoNumero[numero] = -1;
+				continue;
+			}
+
+			novoNumero[numero] = mantidos.size();
+			documentoPorPostagem.put(documento.id(), mantidos.size());
+			mantidos.add(documento);
+		}
+
+		documentos.clear();
+		documentos.addAll(mantidos);
+
+		Iterator<Ocorrencias> listas = indice.values().iterator();
+
+		while (listas.hasNext()) {
+			Ocorrencias ocorrencias = listas.next();
+			ocorrencias.renumerar(novoNumero);
+
+			if (ocorrencias.tamanho() == 0) {
+				listas.remove();
+			}
+		}
+
+		removidos = 0;
+
+		//Durante a carga, a leitura de uma postagem apagada ainda pode chegar; depois dela, as marcações já cumpriram o papel
+		if (!carregando) {
+			apagadas.clear();
+		}
+	}
+
+	/*Posição do cursor na ordem de agora. A relevância guardada no cursor foi calculada com o índice da página anterior:
+	 *se uma gravação mudou o índice, todas as relevâncias mudam junto e a comparação com a antiga repetiria ou pularia
+	 *resultados. Por isso, enquanto a postagem do cursor ainda atende a consulta, a relevância dela é recalculada com o
+	 *índice atual (na mesma ordem de soma do cruzar, para dar exatamente o mesmo valor); senão, vale a guardada.*/
+	private Candidato posicao(List<Ocorrencias> listas, CursorBusca apos) {
+
+		Integer numero = documentoPorPostagem.get(apos.id());
+
+		if (numero == null) {
+			return new Candidato(-1, apos.id(), apos.relevancia());
+		}
+
+		double[] idf = idf(listas);
+		double fatorTamanho = fatorTamanho(documentos.get(numero), comprimentoMedio());
+		double relevancia = 0;
+
+		for (int i = 0; i < listas.size(); i++) {
+			Ocorrencias lista = listas.get(i);
+			int posicao = Arrays.binarySearch(lista.documentos, 0, lista.tamanho(), numero);
+
+			if (posicao < 0) {
+				return new Candidato(-1, apos.id(), apos.relevancia());
+			}
+
+			relevancia += bm25(lista.frequencias[posicao], idf[i], fatorTamanho);
+		}
+
+		return new Candidato(numero, apos.id(), relevancia);
+	}
+
+	private Iterator<Candidato> cruzar(List<Ocorrencias> listas) {
+
+		Ocorrencias menor = listas.get(0);
+		int[] posicoes = new int[listas.size()];
+		double[] idf = idf(listas);
+		double comprimentoMedio = comprimentoMedio();
+
+		return new Iterator<>() {
+
+			private int atual = 0;
+			private Candidato proximo = avancar();
+
+			@Override
+			public boolean hasNext() {
+				return proximo != null;
+			}
+
+			@Override
+			public Candidato next() {
+				Candidato candidato = proximo;
+				proximo = avancar();
+				return candidato;
+			}
+
+			private Candidato avancar() {
+
+				proximoDocumento:
+				while (atual < menor.tamanho()) {
+
+					int numero = menor.documentos[atual];
+					int posicaoMenor = atual++;
+					Documento documento = documentos.get(numero);
+
+					if (documento == null) {
+						continue;
+					}
+
+					double fatorTamanho = fatorTamanho(documento, comprimentoMedio);
+					double relevancia = bm25(menor.frequencias[posicaoMenor], idf[0], fatorTamanho);
+
+					for (int i = 1; i < listas.size(); i++) {
+						Ocorrencias lista = listas.get(i);
+						int posicao = Arrays.binarySearch(lista.documentos, posicoes[i], lista.tamanho(), numero);
+
+						if (posicao < 0) {
+							posicoes[i] = -posicao - 1;
+							continue proximoDocumento;
+						}
+
+						posicoes[i] = posicao + 1;
+						relevancia += bm25(lista.frequencias[posicao], idf[i], fatorTamanho);
+					}
+
+					return new Candidato(numero, documento.id(), relevancia);
+				}
+
+				return null;
+			}
+		};
+	}
+
+	private double[] idf(List<Ocorrencias> listas) {
+
+		double[] idf = new double[listas.size()];
+		int total = documentoPorPostagem.size();
+
+		for (int i = 0; i < listas.size(); i++) {
+			int frequenciaDocumentos = listas.get(i).tamanho();
+			idf[i] = Math.log(1 + (total - frequenciaDocumentos + 0.5) / (frequenciaDocumentos + 0.5));
+		}
+
+		return idf;
+	}
+
+	private double comprimentoMedio() {
+		int total = documentoPorPostagem.size();
+		return total == 0 ? 1 : (double) comprimentoTotal / total;
+	}
+
+	private static double fatorTamanho(Documento documento, double comprimentoMedio) {
+		return K1 * (1 - B + B * documento.comprimento() / comprimentoMedio);
+	}
+
+	private static double bm25(int frequencia, double idf, double fatorTamanho) {
+		return idf * frequencia * (K1 + 1) / (frequencia + fatorTamanho);
+	}
+
+	private static String trecho(String texto) {
+
+		if (texto == null || texto.length() <= TAMANHO_TRECHO) {
+			return texto;
+		}
+
+		return texto.substring(0, TAMANHO_TRECHO);
+	}
+
+	private record Documento(Long id, long versao, String titulo, String trecho, LocalDateTime data, int comprimento, Long tema,
+			Long autor) {
+	}
+
+	private record Candidato(int documento, long id, double relevancia) {
+
+		//Em caso de empate, a postagem mais recente (maior id) vem primeiro; o id não muda, então serve de cursor
+		static final Comparator<Candidato> ORDEM = Comparator.comparingDouble(Candidato::relevancia)
+				.thenComparingLong(Candidato::id);
+	}
+
+	/*Lista de ocorrências de um termo: números dos documentos (em ordem crescente) e a frequência
+	 *do termo em cada um. Usamos vetores de tipos primitivos para ocupar o mínimo de memória.*/
+	private static final class Ocorrencias {
+
+		private int[] documentos = new int[4];
+		private byte[] frequencias = new byte[4];
+		private int tamanho;
+
+		int tamanho() {
+			return tamanho;
+		}
+
+		void adicionar(int documento, int frequencia) {
+
+			if (tamanho == documentos.length) {
+				int capacidade = tamanho + (tamanho >> 1) + 1;
+				documentos = Arrays.copyOf(documentos, capacidade);
+				frequencias = Arrays.copyOf(frequencias, capacidade);
+			}
+
+			documentos[tamanho] = documento;
+			frequencias[tamanho] = (byte) frequencia;
+			tamanho++;
+		}
+
+		//Soma "diferenca" à frequência do termo no documento, incluindo ou retirando o documento da lista se preciso
+		void somar(int documento, int diferenca) {
+
+			int posicao = Arrays.binarySearch(documentos, 0, tamanho, documento);
+
+			if (posicao >= 0) {
+				int frequencia = Math.min(frequencias[posicao] + diferenca, FREQUENCIA_MAXIMA);
+
+				if (frequencia > 0) {
+					frequencias[posicao] = (byte) frequencia;
+					return;
+				}
+
+				System.arraycopy(documentos, posicao + 1, documentos, posicao, tamanho - posicao - 1);
+				System.arraycopy(frequencias, posicao + 1, frequencias, posicao, tamanho - posicao - 1);
+				tamanho--;
+				return;
+			}
+
+			if (diferenca > 0) {
+				int inserir = -posicao - 1;
+				adicionar(0, 0); //garante a capacidade; a posição é preenchida logo abaixo
+				System.arraycopy(documentos, inserir, documentos, inserir + 1, tamanho - inserir - 1);
+				System.arraycopy(frequencias, inserir, frequencias, inserir + 1, tamanho - inserir - 1);
+				documentos[inserir] = documento;
+				frequencias[inserir] = (byte) Math.min(diferenca, FREQUENCIA_MAXIMA);
+			}
+		}
+
+		//novoNumero[n] é o número do documento n depois da compactação, ou -1 se ele foi removido
+		void renumerar(int[] novoNumero) {
+
+			int mantidos = 0;
+
+			for (int i = 0; i < tamanho; i++) {
+				int numero = novoNumero[documentos[i]];
+
+				if (numero >= 0) {
+					documentos[mantidos] = numero;
+					frequencias[mantidos] = frequencias[i];
+					mantidos++;
+				}
+			}
+
+			tamanho = mantidos;
+			documentos = Arrays.copyOf(documentos, Math.max(mantidos, 1));
+			frequencias = Arrays.copyOf(frequencias, Math.max(mantidos, 1));
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.generation.blogpessoal.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.repository.TemaRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*Catálogo dos temas em memória.
+ *
+ *Os temas quase nunca mudam, mas são lidos o tempo todo (listagens e validação das postagens).
+ *O catálogo carrega a tabela tb_temas na primeira leitura e, a partir daí, responde sem acessar o banco.
+ *
+ *Cada alteração feita pela TemaController (post, put, delete) gera uma nova versão do catálogo.
+ *O catálogo é imutável: cada alteração monta uma cópia nova, então as leituras nunca precisam de trava.
+ *
+ *As respostas da TemaController trazem a quantidade de postagens de cada tema (TemaResumo). Cada gravação de um tema
+ *ou de uma postagem (postagensAlteradas(), que não mexe na versão do catálogo) avança o contador de alterações, e o
+ *contador vira o ETag das respostas: se o cliente já tem o ETag atual (cabeçalho If-None-Match), o Spring responde
+ *304 Not Modified sem nenhuma consulta. As quantidades só são recalculadas - com uma única consulta GROUP BY - quando
+ *uma resposta 200 precisa delas e houve alguma alteração desde o último cálculo.*/
+@Service
+public class CatalogoTemaService {
+
+	//Identifica esta execução da aplicação, para que um ETag antigo não coincida com uma versão de depois de um reinício
+	private static final long INICIO = System.currentTimeMillis();
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private volatile Catalogo catalogo;
+
+	private volatile Resumos resumos;
+
+	//Conta as alterações dos temas e das postagens: resumos calculados antes da última alteração estão desatualizados
+	private final AtomicLong alteracoes = new AtomicLong();
+
+	/*Trava das alterações (e da primeira carga, que acessa o banco). É um ReentrantLock, e não synchronized,
+	 *porque uma thread virtual bloqueada em I/O dentro de um synchronized prende a thread da plataforma que a executa.*/
+	private final ReentrantLock trava = new ReentrantLock();
+
+	public Catalogo catalogo() {
+
+		Catalogo atual = catalogo;
+
+		if (atual == null) {
+			trava.lock();
+			try {
+				if (catalogo == null) {
+					Map<Long, Tema> temas = new LinkedHashMap<>();
+					temaRepository.findAll().forEach(tema -> temas.put(tema.getId(), copiar(tema)));
+					catalogo = new Catalogo(1, Collections.unmodifiableMap(temas));
+				}
+				atual = catalogo;
+			} finally {
+				trava.unlock();
+			}
+		}
+
+		return atual;
+	}
+
+	/*Leitura com fallback para o banco: um tema que ainda não está no catálogo (gravado por outra instância,
+	 *por exemplo) é procurado no banco e, se existir, passa a fazer parte do catálogo.*/
+	public Optional<Tema> buscar(Long id) {
+
+		if (id == null) {
+			return Optional.empty();
+		}
+
+		Optional<Tema> tema = catalogo().buscar(id);
+
+		if (tema.isPresent()) {
+			return tema;
+		}
+
+		return temaRepository.findById(id).map(encontrado -> {
+			registrar(encontrado);
+			return copiar(encontrado);
+		});
+	}
+
+	public boolean existe(Long id) {
+		return buscar(id).isPresent();
+	}
+
+	/*Chamado depois que um tema é criado ou atualizado no banco.
+	 *Registrar e remover também descartam o tema do cache de segundo nível do Hibernate, para que
+	 *os dois caches de temas sejam invalidados no mesmo ponto de cada gravação.*/
+	public void registrar(Tema tema) {
+		Tema copia = copiar(tema);
+		alterar(temas -> temas.put(copia.getId(), copia));
+		entityManagerFactory.getCache().evict(Tema.class, copia.getId());
+	}
+
+	//Chamado depois que um tema é apagado do banco
+	public void remover(Long id) {
+		alterar(temas -> temas.remove(id));
+		entityManagerFactory.getCache().evict(Tema.class, id);
+	}
+
+	//Chamado depois que postagens são criadas, alteradas ou apagadas: as quantidades por tema podem ter mudado
+	public void postagensAlteradas() {
+		alteracoes.incrementAndGet();
+	}
+
+	//ETag das respostas com os resumos: muda a cada alteração de um tema ou de uma postagem, sem consultar o banco
+	public String etag() {
+		return "\"temas-" + INICIO + "-" + alteracoes.get() + "\"";
+	}
+
+	//ETag da resposta de um único tema: leva o id, para que o ETag de uma listagem ou de outro tema não valha para ele
+	public String etag(Long id) {
+		return "\"tema-" + id + "-" + INICIO + "-" + alteracoes.get() + "\"";
+	}
+
+	//Temas com a quantidade de postagens, recalculados se algum tema ou postagem foi gravado desde o último cálculo
+	public List<TemaResumo> resumos() {
+
+		long alteracao = alteracoes.get(); //lida antes da consulta: uma gravação que a consulta não enxergou invalida o resultado
+		Resumos atuais = resumos;
+
+		if (atuais != null && atuais.alteracao() == alteracao) {
+			return atuais.itens();
+		}
+
+		List<TemaResumo> itens = List.copyOf(temaRepository.findResumos());
+
+		trava.lock();
+		try {
+			atuais = resumos;
+
+			if (atuais != null && atuais.alteracao() >= alteracao) { //outra thread já guardou um cálculo tão novo quanto este
+				return atuais.itens();
+			}
+
+			resumos = new Resumos(alteracao, itens);
+			return itens;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	public Optional<TemaResumo> resumo(Long id) {
+
+		if (!existe(id)) {
+			return Optional.empty();
+		}
+
+		return resumos().stream().filter(resumo -> resumo.id().equals(id)).findFirst();
+	}
+
+	public List<TemaResumo> resumosPorDescricao(String descricao) {
+		String procurada = descricao.toLowerCase(Locale.ROOT);
+		return resumos().stream()
+				.filter(resumo -> resumo.descricao() != null && resumo.descricao().toLowerCase(Locale.ROOT).contains(procurada))
+				.toList();
+	}
+
+	private void alterar(Consumer<Map<Long, Tema>> alteracao) {
+
+		trava.lock();
+		try {
+			Catalogo atual = catalogo();
+			Map<Long, Tema> temas = new LinkedHashMap<>(atual.temas());
+			alteracao.accept(temas);
+			catalogo = new Catalogo(atual.versao() + 1, Collections.unmodifiableMap(temas));
+			alteracoes.incrementAndGet();
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	//O catálogo guarda apenas os dados do próprio tema - a lista de postagens não é carregada nem mantida em memória
+	private static Tema copiar(Tema tema) {
+		Tema copia = new Tema();
+		copia.setId(tema.getId());
+		copia.setDescricao(tema.getDescricao());
+		return copia;
+	}
+
+	//Resumos calculados depois da alteração de número "alteracao"
+	private record Resumos(long alteracao, List<TemaResumo> itens) {
+	}
+
+	public record Catalogo(long versao, Map<Long, Tema> temas) {
+
+		public List<Tema> listar() {
+			return List.copyOf(temas.values());
+		}
+
+		public Optional<Tema> buscar(Long id) {
+			return Optional.ofNullable(temas.get(id));
+		}
+
+		public List<Tema> buscarPorDescricao(String descricao) {
+			String procurada = descricao.toLowerCase(Locale.ROOT);
+			return temas.values().stream()
+					.filter(tema -> tema.getDescricao() != null && tema.getDescricao().toLowerCase(Locale.ROOT).contains(procurada))
+					.toList();
+		}
+	}
+}
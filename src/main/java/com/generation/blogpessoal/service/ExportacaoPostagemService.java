@@ -0,0 +1,146 @@
+package com.generation.blogpessoal.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+/*Exportação de todas as postagens (GET /postagens/exportar), em NDJSON ou CSV.
+ *
+ *Cada postagem lida do banco é escrita na resposta e descartada em seguida: nem a tabela nem o
+ *arquivo gerado ficam inteiros na memória, então exportar mil ou dez milhões de postagens usa a mesma memória.
+ *A leitura usa o PostagemRepository.streamResumos, dentro de uma transação somente leitura - o PostgreSQL
+ *só respeita o fetch size com a conexão fora do modo autocommit, e o MySQL precisa do useCursorFetch na URL.*/
+@Service
+public class ExportacaoPostagemService {
+
+	public enum Formato {
+
+		NDJSON("application/x-ndjson", "ndjson"),
+		CSV("text/csv", "csv");
+
+		private final String tipo;
+		private final String extensao;
+
+		Formato(String tipo, String extensao) {
+			this.tipo = tipo;
+			this.extensao = extensao;
+		}
+
+		public String tipo() {
+			return tipo;
+		}
+
+		public String extensao() {
+			return extensao;
+		}
+	}
+
+	private static final String CABECALHO_CSV = "id,titulo,texto,data,versao,temaId,temaDescricao,autorId,autorNome";
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private DateTimeFormatter formatoData; //O mesmo do JSON (JacksonConfig), para a data sair igual no NDJSON e no CSV
+
+	private final TransactionTemplate transacaoLeitura;
+
+	public ExportacaoPostagemService(PlatformTransactionManager transactionManager) {
+		this.transacaoLeitura = new TransactionTemplate(transactionManager);
+		this.transacaoLeitura.setReadOnly(true);
+	}
+
+	public void exportar(Formato formato, OutputStream saida) throws IOException {
+
+		Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+		ObjectWriter json = objectMapper.writer().withAttribute(FragmentosJsonPostagemService.SEM_CACHE, Boolean.TRUE); //cada postagem é lida uma vez só
+
+		if (formato == Formato.CSV) {
+			escritor.write(CABECALHO_CSV);
+			escritor.write('\n');
+		}
+
+		try {
+			transacaoLeitura.executeWithoutResult(status -> {
+
+				try (Stream<PostagemResumo> postagens = postagemRepository.streamResumos()) {
+
+					Iterator<PostagemResumo> iterador = postagens.iterator();
+
+					while (iterador.hasNext()) {
+						escrever(formato, iterador.next(), json, escritor);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause(); //normalmente o cliente desistiu do download no meio
+		}
+
+		escritor.flush();
+	}
+
+	private void escrever(Formato formato, PostagemResumo postagem, ObjectWriter json, Writer escritor) throws IOException {
+
+		if (formato == Formato.NDJSON) {
+			escritor.write(json.writeValueAsString(postagem));
+		} else {
+			escritor.write(String.valueOf(postagem.id()));
+			escritor.write(',');
+			escritor.write(csv(postagem.titulo()));
+			escritor.write(',');
+			escritor.write(csv(postagem.texto()));
+			escritor.write(',');
+			escritor.write(postagem.data() == null ? "" : formatoData.format(postagem.data()));
+			escritor.write(',');
+			escritor.write(csv(postagem.versao()));
+			escritor.write(',');
+			escritor.write(csv(postagem.temaId()));
+			escritor.write(',');
+			escritor.write(csv(postagem.temaDescricao()));
+			escritor.write(',');
+			escritor.write(csv(postagem.autorId()));
+			escritor.write(',');
+			escritor.write(csv(postagem.autorNome()));
+		}
+
+		escritor.write('\n');
+	}
+
+	//Campo CSV no padrão RFC 4180: textos com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas internas duplicadas
+	private static String csv(Object valor) {
+
+		if (valor == null) {
+			return "";
+		}
+
+		String texto = valor.toString();
+
+		if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+			return texto;
+		}
+
+		return '"' + texto.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,210 @@
+package com.generation.blogpessoal.service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*Cache do JSON já serializado de cada postagem.
+ *
+ *A serialização do PostagemResumo pelo Jackson aparecia entre os maiores consumos de CPU da listagem e da busca por id,
+ *e o resultado é sempre o mesmo enquanto a postagem não muda. Guardamos o JSON de cada postagem, e as respostas são montadas
+ *com writeRawValue, que copia o texto pronto para a saída - o mesmo caminho para qualquer gerador do Jackson (bytes ou texto):
+ *- Um fragmento vale para uma versão da postagem e para a descrição do tema e o nome do autor com que foi gerado. Uma postagem
+ *  alterada (versão nova) ou um tema/autor renomeado gera um fragmento novo na próxima leitura, sem risco de devolver JSON antigo;
+ *- A PostagemController descarta o fragmento no put, no patch e no delete. Cada fragmento guarda o tema e o autor da
+ *  postagem, e as exclusões de temas e usuários descartam os fragmentos deles percorrendo o próprio cache;
+ *- O limite é em bytes (blogpessoal.cache.fragmentos.tamanho-maximo), contando um byte por caractere - o JDK guarda em Latin-1,
+ *  com um byte por caractere, os textos que não têm caracteres fora dele. Os fragmentos são objetos comuns do heap: o que sai
+ *  do cache fica para o coletor de lixo;
+ *- A exportação percorre a tabela inteira e serializa com o atributo SEM_CACHE, para não ocupar o cache com postagens lidas
+ *  uma única vez;
+ *- As métricas ficam em /actuator/metrics: cache.* (cache=fragmentos) e postagens.fragmentos.bytes (tamanho dos fragmentos).*/
+@Service
+public class FragmentosJsonPostagemService {
+
+	//Atributo do ObjectWriter (withAttribute) que serializa sem ler nem preencher o cache
+	public static final String SEM_CACHE = FragmentosJsonPostagemService.class.getName() + ".semCache";
+
+	private static final JsonFactory FABRICA_PADRAO = new JsonFactory();
+
+	private final Cache<Long, Fragmento> fragmentos;
+
+	public FragmentosJsonPostagemService(@Value("${blogpessoal.cache.fragmentos.tamanho-maximo:32MB}") DataSize tamanhoMaximo,
+			MeterRegistry meterRegistry) {
+
+		this.fragmentos = Caffeine.newBuilder()
+				.maximumWeight(tamanhoMaximo.toBytes())
+				.weigher((Long id, Fragmento fragmento) -> fragmento.json().length())
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, fragmentos, "fragmentos");
+		Gauge.builder("postagens.fragmentos.bytes", fragmentos,
+				cache -> cache.policy().eviction().map(limite -> limite.weightedSize().orElse(0L)).orElse(0L))
+				.baseUnit("bytes")
+				.register(meterRegistry);
+	}
+
+	/*Module registrado pelo JacksonConfig no ObjectMapper da aplicação: o PostagemResumo continua com o serializador
+	 *que o Jackson monta para o record, mas envolvido pelo Serializador, que passa pelo cache.*/
+	public SimpleModule modulo() {
+
+		SimpleModule modulo = new SimpleModule("fragmentos-postagem");
+		modulo.setSerializerModifier(new BeanSerializerModifier() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription descricao,
+					JsonSerializer<?> serializador) {
+
+				if (descricao.getBeanClass() != PostagemResumo.class) {
+					return serializador;
+				}
+
+				return new Serializador((JsonSerializer<PostagemResumo>) serializador);
+			}
+		});
+
+		return modulo;
+	}
+
+	//Chamado depois que a postagem é alterada ou apagada no banco
+	public void invalidar(Long id) {
+		fragmentos.invalidate(id);
+	}
+
+	//Chamado depois do commit da exclusão de um tema, que apaga as postagens dele em massa
+	public void invalidarPorTema(Long tema) {
+		fragmentos.asMap().values().removeIf(fragmento -> tema.equals(fragmento.tema()));
+	}
+
+	//Chamado depois do commit da exclusão de um usuário, que apaga as postagens dele em massa
+	public void invalidarPorAutor(Long autor) {
+		fragmentos.asMap().values().removeIf(fragmento -> autor.equals(fragmento.autor()));
+	}
+
+	//Gera o JSON da postagem e guarda no cache
+	private Fragmento gerar(PostagemResumo postagem, JsonSerializer<PostagemResumo> padrao, JsonGenerator gerador,
+			SerializerProvider provider) throws IOException {
+
+		ObjectCodec codec = gerador.getCodec();
+		JsonFactory fabrica = codec != null ? codec.getFactory() : FABRICA_PADRAO;
+
+		//O mesmo SerializerProvider da resposta: datas e demais configurações do ObjectMapper saem iguais às da serialização normal
+		StringWriter json = new StringWriter();
+		try (JsonGenerator fragmento = fabrica.createGenerator(json)) {
+			padrao.serialize(postagem, fragmento, provider);
+		}
+
+		Fragmento gerado = new Fragmento(postagem.versao(), rotulos(postagem), postagem.temaId(), postagem.autorId(), json.toString());
+		fragmentos.put(postagem.id(), gerado);
+		return gerado;
+	}
+
+	/*Impressão digital (FNV-1a de 64 bits) da descrição do tema e do nome do autor: um tema ou autor renomeado muda o JSON
+	 *sem mudar a versão da postagem. Guardar os dois textos em cada fragmento manteria no heap uma cópia deles por postagem.*/
+	private static long rotulos(PostagemResumo postagem) {
+		return misturar(misturar(0xcbf29ce484222325L, postagem.temaDescricao()), postagem.autorNome());
+	}
+
+	//Um char vai até 0xFFFF: os marcadores de fim de texto e de null não coincidem com nenhum caractere
+	private static long misturar(long hash, String texto) {
+
+		if (texto == null) {
+			return (hash ^ 0x10001) * 0x100000001b3L;
+		}
+
+		for (int i = 0; i < texto.length(); i++) {
+			hash = (hash ^ texto.charAt(i)) * 0x100000001b3L;
+		}
+
+		return (hash ^ 0x10000) * 0x100000001b3L;
+	}
+
+	private final class Serializador extends StdSerializer<PostagemResumo> implements ResolvableSerializer, ContextualSerializer {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient JsonSerializer<PostagemResumo> padrao;
+
+		Serializador(JsonSerializer<PostagemResumo> padrao) {
+			super(PostagemResumo.class);
+			this.padrao = padrao;
+		}
+
+		@Override
+		public void serialize(PostagemResumo postagem, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+
+			//Exportação, JSON indentado ou projeção sem versão: serialização normal, sem passar pelo cache
+			if (postagem.id() == null || postagem.versao() == null || gerador.getPrettyPrinter() != null
+					|| provider.getAttribute(SEM_CACHE) != null) {
+				padrao.serialize(postagem, gerador, provider);
+				return;
+			}
+
+			Fragmento fragmento = fragmentos.getIfPresent(postagem.id());
+
+			if (fragmento == null || !fragmento.valePara(postagem)) {
+				fragmento = gerar(postagem, padrao, gerador, provider);
+			}
+
+			gerador.writeRawValue(fragmento.json());
+		}
+
+		@Override
+		public void serializeWithType(PostagemResumo postagem, JsonGenerator gerador, SerializerProvider provider,
+				TypeSerializer tipo) throws IOException {
+			padrao.serializeWithType(postagem, gerador, provider, tipo);
+		}
+
+		@Override
+		public void resolve(SerializerProvider provider) throws JsonMappingException {
+			if (padrao instanceof ResolvableSerializer resolvivel) {
+				resolvivel.resolve(provider);
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty propriedade) throws JsonMappingException {
+			JsonSerializer<?> contextual = provider.handleSecondaryContextualization(padrao, propriedade);
+			return contextual == padrao ? this : new Serializador((JsonSerializer<PostagemResumo>) contextual);
+		}
+	}
+
+	//Um fragmento no cache: a versão da postagem, a impressão digital dos nomes, o tema e o autor e o JSON gerado com eles
+	private record Fragmento(long versao, long rotulos, Long tema, Long autor, String json) {
+
+		boolean valePara(PostagemResumo postagem) {
+			return versao == postagem.versao() && rotulos == FragmentosJsonPostagemService.rotulos(postagem);
+		}
+	}
+}
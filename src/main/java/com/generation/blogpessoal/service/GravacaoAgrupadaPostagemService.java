@@ -0,0 +1,231 @@
+package com.generation.blogpessoal.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.security.SobrecargaException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*Gravação agrupada (group commit) do POST /postagens, ligada com blogpessoal.gravacao-agrupada.ativa=true.
+ *
+ *Nos horários de pico chegam muitos POST pequenos ao mesmo tempo, e cada um abria a própria transação
+ *para um INSERT de uma linha - o custo ficava no commit (fsync do banco) e nas idas e voltas, não no INSERT.
+ *Aqui as requisições entram numa fila e uma única thread grava o que se acumulou em uma transação só:
+ *- O grupo é gravado quando atinge tamanho-maximo postagens ou quando a primeira delas espera "janela";
+ *- Os INSERTs vão em batch JDBC (o mesmo da importação em lote) e cada requisição recebe o próprio id;
+ *- Se o grupo falhar (uma postagem com usuário inexistente, por exemplo), cada postagem é gravada de novo
+ *  sozinha, para que apenas a requisição com problema receba o erro;
+ *- Com a fila cheia a requisição é recusada na hora com 503 e Retry-After (SobrecargaException), com o
+ *  tempo de blogpessoal.gravacao-agrupada.tentar-apos;
+ *- Uma requisição espera no máximo blogpessoal.gravacao-agrupada.espera-maxima pelo grupo dela (uma conexão
+ *  presa no banco não segura as threads das requisições para sempre) e depois também recebe 503 - se o grupo
+ *  já estava sendo gravado, a postagem ainda pode aparecer, então o cliente deve conferir antes de repetir;
+ *- As métricas ficam em /actuator/metrics: postagens.gravacao.grupo (postagens por grupo, com a tag
+ *  motivo=cheio|janela) e postagens.gravacao.espera (tempo de cada requisição na fila mais a gravação).*/
+@Service
+@ConditionalOnProperty(name = "blogpessoal.gravacao-agrupada.ativa", havingValue = "true")
+public class GravacaoAgrupadaPostagemService implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(GravacaoAgrupadaPostagemService.class);
+
+	private final ImportacaoPostagemService importacaoPostagemService;
+	private final BuscaPostagemService buscaPostagemService;
+	private final CatalogoTemaService catalogoTemaService;
+	private final TransactionTemplate transactionTemplate;
+
+	private final BlockingQueue<Pedido> fila;
+	private final long janela;
+	private final int tamanhoMaximo;
+	private final Duration tentarApos;
+	private final long esperaMaxima;
+	private final Thread gravador;
+
+	private final DistributionSummary grupoCheio;
+	private final DistributionSummary grupoJanela;
+	private final Timer espera;
+
+	private volatile boolean ativo = true;
+
+	public GravacaoAgrupadaPostagemService(ImportacaoPostagemService importacaoPostagemService,
+			BuscaPostagemService buscaPostagemService, CatalogoTemaService catalogoTemaService,
+			TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+			@Value("${blogpessoal.gravacao-agrupada.janela:5ms}") Duration janela,
+			@Value("${blogpessoal.gravacao-agrupada.tamanho-maximo:64}") int tamanhoMaximo,
+			@Value("${blogpessoal.gravacao-agrupada.fila:1024}") int fila,
+			@Value("${blogpessoal.gravacao-agrupada.tentar-apos:1s}") Duration tentarApos,
+			@Value("${blogpessoal.gravacao-agrupada.espera-maxima:10s}") Duration esperaMaxima) {
+
+		this.importacaoPostagemService = importacaoPostagemService;
+		this.buscaPostagemService = buscaPostagemService;
+		this.catalogoTemaService = catalogoTemaService;
+		this.transactionTemplate = transactionTemplate;
+		this.fila = new ArrayBlockingQueue<>(fila);
+		this.janela = janela.toNanos();
+		this.tamanhoMaximo = tamanhoMaximo;
+		this.tentarApos = tentarApos;
+		this.esperaMaxima = esperaMaxima.toNanos();
+
+		this.grupoCheio = grupo(meterRegistry, "cheio");
+		this.grupoJanela = grupo(meterRegistry, "janela");
+		this.espera = Timer.builder("postagens.gravacao.espera").register(meterRegistry);
+
+		this.gravador = new Thread(this::executar, "gravacao-postagens");
+		this.gravador.setDaemon(true);
+		this.gravador.start();
+	}
+
+	//Bloqueia até o grupo da postagem ser confirmado e devolve a postagem com id, data e versão preenchidos
+	public Postagem gravar(Postagem postagem) {
+
+		long inicio = System.nanoTime();
+		Pedido pedido = new Pedido(postagem, new CompletableFuture<>());
+
+		if (!ativo || !fila.offer(pedido)) {
+			throw new SobrecargaException("Servidor ocupado! Tente novamente em instantes.", tentarApos);
+		}
+
+		//O close() pode ter esvaziado a fila entre a conferência do "ativo" e o offer: o pedido não seria gravado por ninguém
+		if (!ativo && fila.remove(pedido)) {
+			throw encerrando();
+		}
+
+		try {
+			return pedido.resultado().get(esperaMaxima, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			fila.remove(pedido); //se ainda não saiu da fila, não será mais gravado
+			throw new SobrecargaException("A gravação da postagem demorou demais! Tente novamente em instantes.", tentarApos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrompido enquanto aguardava a gravação da postagem", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void executar() {
+
+		List<Pedido> grupo = new ArrayList<>(tamanhoMaximo);
+
+		while (ativo) {
+			try {
+				grupo.add(fila.take());
+				long limite = System.nanoTime() + janela;
+
+				while (grupo.size() < tamanhoMaximo) {
+					Pedido proximo = fila.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+					if (proximo == null) {
+						break;
+					}
+					grupo.add(proximo);
+				}
+
+				(grupo.size() >= tamanhoMaximo ? grupoCheio : grupoJanela).record(grupo.size());
+				gravarGrupo(grupo);
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				grupo.forEach(pedido -> pedido.resultado().completeExceptionally(encerrando()));
+				break;
+			} catch (RuntimeException e) {
+				LOGGER.error("Falha inesperada na gravação agrupada de {} postagens", grupo.size(), e);
+				grupo.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+			} finally {
+				grupo.clear();
+			}
+		}
+
+		recusarRestantes();
+	}
+
+	private void recusarRestantes() {
+		List<Pedido> restantes = new ArrayList<>();
+		fila.drainTo(restantes);
+		restantes.forEach(pedido -> pedido.resultado().completeExceptionally(encerrando()));
+	}
+
+	private SobrecargaException encerrando() {
+		return new SobrecargaException("Servidor encerrando! Tente novamente em instantes.", tentarApos);
+	}
+
+	private void gravarGrupo(List<Pedido> grupo) {
+
+		try {
+			transactionTemplate.executeWithoutResult(
+					status -> importacaoPostagemService.inserir(grupo.stream().map(Pedido::postagem).toList()));
+		} catch (DataAccessException e) {
+			LOGGER.warn("Falha ao gravar o grupo de {} postagens; gravando uma a uma", grupo.size(), e);
+			grupo.forEach(this::gravarSozinha);
+			return;
+		}
+
+		//Só depois do commit as postagens entram no índice de busca; as quantidades por tema mudam uma vez por grupo
+		grupo.forEach(pedido -> buscaPostagemService.indexar(pedido.postagem()));
+		catalogoTemaService.postagensAlteradas();
+		grupo.forEach(pedido -> pedido.resultado().complete(pedido.postagem()));
+	}
+
+	private void gravarSozinha(Pedido pedido) {
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> importacaoPostagemService.inserir(List.of(pedido.postagem())));
+		} catch (DataAccessException e) {
+			pedido.resultado().completeExceptionally(e);
+			return;
+		}
+
+		buscaPostagemService.indexar(pedido.postagem());
+		catalogoTemaService.postagensAlteradas();
+		pedido.resultado().complete(pedido.postagem());
+	}
+
+	private DistributionSummary grupo(MeterRegistry meterRegistry, String motivo) {
+		return DistributionSummary.builder("postagens.gravacao.grupo")
+				.tag("motivo", motivo)
+				.maximumExpectedValue((double) tamanhoMaximo)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void close() {
+		ativo = false;
+		gravador.interrupt();
+
+		try {
+			gravador.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		//Pedidos que entraram na fila depois de a thread de gravação esvaziá-la (ou enquanto ela estava presa no banco)
+		recusarRestantes();
+	}
+
+	private record Pedido(Postagem postagem, CompletableFuture<Postagem> resultado) {
+	}
+}
@@ -0,0 +1,243 @@
+package com.generation.blogpessoal.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoLote;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/*Importação de postagens em lote, a partir de um arquivo NDJSON (uma postagem em JSON por linha).
+ *
+ *Pelo JPA cada postagem seria um INSERT separado: com o id gerado pelo banco (GenerationType.IDENTITY)
+ *o Hibernate precisa do id logo depois de cada INSERT e não consegue agrupar os comandos.
+ *Aqui os INSERTs são enviados direto pelo JDBC, em grupos de TAMANHO_BATCH linhas por ida ao banco,
+ *e a transação é confirmada a cada LINHAS_POR_TRANSACAO linhas - assim uma importação grande
+ *não segura uma transação (e os bloqueios dela) do começo ao fim.
+ *
+ *- O arquivo é lido linha a linha, sem carregar o corpo inteiro na memória;
+ *- Cada linha passa pelas mesmas validações do POST /postagens (Bean Validation e existência do tema);
+ *- Os temas são validados pelo CatalogoTemaService (em memória) e cada usuário é consultado no banco
+ *  só uma vez por importação - assim como cada tema que não está no catálogo, que o CatalogoTemaService
+ *  procuraria no banco a cada linha;
+ *- Uma linha inválida é rejeitada sozinha; um erro do banco rejeita apenas as linhas da transação em que ocorreu.*/
+@Service
+public class ImportacaoPostagemService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImportacaoPostagemService.class);
+
+	private static final String INSERT = "INSERT INTO tb_postagens (titulo, texto, data, versao, tema_id, usuario_id) "
+			+ "VALUES (:titulo, :texto, :data, 0, :tema, :usuario)";
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+
+	@Autowired
+	private BuscaPostagemService buscaPostagemService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Value("${blogpessoal.lote.tamanho-batch:500}")
+	private int tamanhoBatch;
+
+	@Value("${blogpessoal.lote.linhas-por-transacao:5000}")
+	private int linhasPorTransacao;
+
+	//Fuso em que o Hibernate grava as datas (hibernate.jdbc.time_zone); vazio é o fuso da JVM
+	@Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}")
+	private String fusoJdbc;
+
+	public ResultadoLote importar(InputStream corpo) throws IOException {
+
+		long inicio = System.currentTimeMillis();
+		List<ResultadoLote.Linha> resultados = new ArrayList<>();
+		List<Pendente> pendentes = new ArrayList<>();
+		Map<Long, Boolean> temasExistentes = new HashMap<>();
+		Map<Long, Boolean> usuariosExistentes = new HashMap<>();
+
+		try (BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+
+			String conteudo;
+			int numero = 0;
+
+			while ((conteudo = leitor.readLine()) != null) {
+
+				numero++;
+
+				if (conteudo.isBlank()) {
+					continue;
+				}
+
+				String erro;
+
+				try {
+					Postagem postagem = objectMapper.readValue(conteudo, Postagem.class);
+					erro = validar(postagem, temasExistentes, usuariosExistentes);
+
+					if (erro == null) {
+						pendentes.add(new Pendente(numero, postagem));
+
+						if (pendentes.size() >= linhasPorTransacao) {
+							gravar(pendentes, resultados);
+							pendentes.clear();
+						}
+						continue;
+					}
+				} catch (JsonProcessingException e) {
+					erro = "JSON inválido: " + e.getOriginalMessage();
+				}
+
+				resultados.add(new ResultadoLote.Linha(numero, null, erro));
+			}
+		}
+
+		gravar(pendentes, resultados);
+
+		//As gravações e as rejeições chegam fora de ordem (uma linha só é gravada quando a transação dela é confirmada)
+		resultados.sort((a, b) -> Integer.compare(a.linha(), b.linha()));
+
+		int inseridas = (int) resultados.stream().filter(resultado -> resultado.erro() == null).count();
+		LOGGER.info("Importação em lote: {} postagens inseridas e {} rejeitadas em {} ms", inseridas,
+				resultados.size() - inseridas, System.currentTimeMillis() - inicio);
+
+		return new ResultadoLote(inseridas, resultados.size() - inseridas, resultados);
+	}
+
+	private String validar(Postagem postagem, Map<Long, Boolean> temasExistentes, Map<Long, Boolean> usuariosExistentes) {
+
+		String violacoes = validator.validate(postagem).stream()
+				.map(ConstraintViolation::getMessage)
+				.sorted()
+				.collect(Collectors.joining(" "));
+
+		if (!violacoes.isEmpty()) {
+			return violacoes;
+		}
+
+		Long tema = postagem.getTema() == null ? null : postagem.getTema().getId();
+
+		if (tema == null || !temasExistentes.computeIfAbsent(tema, catalogoTemaService::existe)) {
+			return "O tema não existe!";
+		}
+
+		if (postagem.getUsuario() != null) {
+			Long usuario = postagem.getUsuario().getId();
+
+			if (usuario == null || !usuariosExistentes.computeIfAbsent(usuario, usuarioRepository::existsById)) {
+				return "O usuário não existe!";
+			}
+		}
+
+		return null;
+	}
+
+	//Grava as linhas pendentes em uma única transação, em grupos de tamanhoBatch INSERTs por ida ao banco
+	private void gravar(List<Pendente> pendentes, List<ResultadoLote.Linha> resultados) {
+
+		if (pendentes.isEmpty()) {
+			return;
+		}
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> inserir(pendentes.stream().map(Pendente::postagem).toList()));
+		} catch (DataAccessException e) {
+			LOGGER.warn("Falha ao gravar {} postagens do lote", pendentes.size(), e);
+			pendentes.forEach(pendente -> resultados.add(new ResultadoLote.Linha(pendente.linha(), null,
+					"Falha ao gravar a postagem no banco de dados!")));
+			return;
+		}
+
+		//Só depois do commit as postagens entram no índice de busca
+		for (Pendente pendente : pendentes) {
+			Postagem postagem = pendente.postagem();
+			buscaPostagemService.indexar(postagem);
+			resultados.add(new ResultadoLote.Linha(pendente.linha(), postagem.getId(), null));
+		}
+
+		catalogoTemaService.postagensAlteradas();
+	}
+
+	/*INSERT das postagens em grupos de tamanhoBatch comandos por ida ao banco, preenchendo o id, a data e a versão
+	 *de cada uma. Deve ser chamado dentro de uma transação - também é usado pela GravacaoAgrupadaPostagemService.
+	 *
+	 *A data vai para o banco convertida para o fuso do hibernate.jdbc.time_zone, como o Hibernate faz nas postagens
+	 *salvas pelo JPA: sem a conversão, numa JVM em outro fuso (UTC, no contêiner), as postagens importadas ficariam
+	 *horas fora de ordem na listagem por (data, id).*/
+	void inserir(List<Postagem> postagens) {
+
+		LocalDateTime data = LocalDateTime.now();
+		ZoneId fuso = fusoJdbc.isBlank() ? ZoneId.systemDefault() : ZoneId.of(fusoJdbc);
+		LocalDateTime dataNoBanco = data.atZone(ZoneId.systemDefault()).withZoneSameInstant(fuso).toLocalDateTime();
+
+		for (int inicio = 0; inicio < postagens.size(); inicio += tamanhoBatch) {
+
+			List<Postagem> grupo = postagens.subList(inicio, Math.min(inicio + tamanhoBatch, postagens.size()));
+			SqlParameterSource[] parametros = new SqlParameterSource[grupo.size()];
+
+			for (int i = 0; i < grupo.size(); i++) {
+				Postagem postagem = grupo.get(i);
+				postagem.setData(data);
+				postagem.setVersao(0L);
+
+				parametros[i] = new MapSqlParameterSource()
+						.addValue("titulo", postagem.getTitulo())
+						.addValue("texto", postagem.getTexto())
+						.addValue("data", dataNoBanco)
+						.addValue("tema", postagem.getTema().getId())
+						.addValue("usuario", postagem.getUsuario() == null ? null : postagem.getUsuario().getId());
+			}
+
+			GeneratedKeyHolder chaves = new GeneratedKeyHolder();
+			jdbcTemplate.batchUpdate(INSERT, parametros, chaves, new String[] { "id" });
+
+			List<Map<String, Object>> ids = chaves.getKeyList();
+
+			for (int i = 0; i < grupo.size(); i++) {
+				grupo.get(i).setId(((Number) ids.get(i).values().iterator().next()).longValue());
+			}
+		}
+	}
+
+	private record Pendente(int linha, Postagem postagem) {
+	}
+}
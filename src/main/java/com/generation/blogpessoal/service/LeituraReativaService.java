@@ -0,0 +1,92 @@
+package com.generation.blogpessoal.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/*Leituras usadas pela API /v2, entregues como Flux/Mono.
+ *
+ *O acesso ao banco continua sendo JDBC bloqueante: cada consulta só é transferida para o scheduler boundedElastic
+ *do Reactor, então ela ainda ocupa uma thread (desse scheduler, não do Tomcat) e uma conexão do pool enquanto roda.
+ *As postagens são lidas em páginas por chave (as mesmas consultas da listagem paginada da PostagemController):
+ *- Cada página é uma consulta curta - a conexão JDBC é devolvida ao pool ao fim de cada página,
+ *  e não segurada durante toda a resposta;
+ *- A próxima página só é buscada quando o cliente já consumiu a anterior (contrapressão): um cliente lento
+ *  não faz o servidor acumular postagens na memória;
+ *- Cada resposta entrega no máximo "limite" postagens; o cliente continua a leitura com o id da última recebida ("apos").*/
+@Service
+public class LeituraReativaService {
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+
+	@Value("${blogpessoal.v2.tamanho-pagina:100}")
+	private int tamanhoPagina;
+
+	//Sem "apos", começa pelas postagens mais recentes; com "apos", continua depois dela - e responde 400 se ela não existe mais
+	public Flux<PostagemResumo> postagens(Long apos, int limite) {
+
+		if (apos == null) {
+			return paginas(null, limite);
+		}
+
+		return Mono.fromCallable(() -> postagemRepository.findResumoById(apos))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(Mono::justOrEmpty)
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de leitura inválido!", null)))
+				.flatMapMany(ultima -> paginas(ultima, limite));
+	}
+
+	public Mono<PostagemResumo> postagem(Long id) {
+		return Mono.fromCallable(() -> postagemRepository.findResumoById(id))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(Mono::justOrEmpty);
+	}
+
+	//Os temas vêm do catálogo em memória - só a primeira carga do catálogo acessa o banco
+	public Flux<Tema> temas() {
+		return Mono.fromCallable(() -> catalogoTemaService.catalogo().listar())
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapIterable(temas -> temas);
+	}
+
+	public Mono<Tema> tema(Long id) {
+		return Mono.fromCallable(() -> catalogoTemaService.buscar(id))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(Mono::justOrEmpty);
+	}
+
+	//Lê uma página depois de "ultima" e só encadeia a seguinte se ainda faltam postagens para o limite da resposta
+	private Flux<PostagemResumo> paginas(PostagemResumo ultima, int restante) {
+
+		int tamanho = Math.min(tamanhoPagina, restante);
+
+		return Mono.fromCallable(() -> ultima == null
+						? postagemRepository.findPrimeiraPagina(Limit.of(tamanho))
+						: postagemRepository.findPaginaApos(ultima.data(), ultima.id(), Limit.of(tamanho)))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapMany(pagina -> {
+					Flux<PostagemResumo> postagens = Flux.fromIterable(pagina);
+
+					if (pagina.size() < tamanho || restante == tamanho) {
+						return postagens;
+					}
+
+					return postagens.concatWith(Flux.defer(() -> paginas(pagina.get(pagina.size() - 1), restante - tamanho)));
+				});
+	}
+}
@@ -0,0 +1,60 @@
+package com.generation.blogpessoal.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.generation.blogpessoal.model.CursorPostagem;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+/*Leituras das postagens usadas pela PostagemController e pela TemaController.
+ *
+ *Cada método é uma transação somente leitura (@Transactional(readOnly = true)): o Hibernate abre a sessão em
+ *FlushMode.MANUAL e com as entidades somente leitura, então não guarda cópias para a verificação de alterações
+ *(dirty checking) nem faz flush no fim. A conexão JDBC é devolvida ao pool assim que o método termina, e o
+ *método devolve projeções já preenchidas (PostagemResumo) - nada fica para ser carregado durante a escrita do JSON.
+ *Por isso o spring.jpa.open-in-view está desligado: a conexão não fica presa enquanto a resposta é enviada ao cliente.*/
+@Service
+public class PostagemService {
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	//Página da listagem geral: sem cursor, as postagens mais recentes; com cursor, as seguintes a ele
+	@Transactional(readOnly = true)
+	public Pagina<PostagemResumo> listar(CursorPostagem apos, int limite) {
+
+		List<PostagemResumo> postagens = apos == null
+				? postagemRepository.findPrimeiraPagina(Limit.of(limite + 1))
+				: postagemRepository.findPaginaApos(apos.data(), apos.id(), Limit.of(limite + 1));
+
+		return Pagina.de(postagens, limite, postagem -> CursorPostagem.de(postagem).codificar());
+	}
+
+	//Mesma paginação da listagem geral, restrita às postagens de um tema
+	@Transactional(readOnly = true)
+	public Pagina<PostagemResumo> listarPorTema(Long temaId, CursorPostagem apos, int limite) {
+
+		List<PostagemResumo> postagens = apos == null
+				? postagemRepository.findPrimeiraPaginaPorTema(temaId, Limit.of(limite + 1))
+				: postagemRepository.findPaginaAposPorTema(temaId, apos.data(), apos.id(), Limit.of(limite + 1));
+
+		return Pagina.de(postagens, limite, postagem -> CursorPostagem.de(postagem).codificar());
+	}
+
+	@Transactional(readOnly = true)
+	public Optional<PostagemResumo> buscarPorId(Long id) {
+		return postagemRepository.findResumoById(id);
+	}
+
+	@Transactional(readOnly = true)
+	public List<PostagemResumo> buscarPorTitulo(String titulo) {
+		return postagemRepository.findResumosByTitulo(titulo);
+	}
+}
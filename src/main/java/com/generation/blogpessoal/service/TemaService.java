@@ -0,0 +1,58 @@
+package com.generation.blogpessoal.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+
+/*Leituras e exclusão dos temas usadas pela TemaController.
+ *
+ *As leituras passam pelo catálogo em memória (CatalogoTemaService) e por isso não abrem transação - cada uma
+ *pegaria uma conexão do pool só para ler a memória. Quando o catálogo ou as quantidades de postagens precisam
+ *ser recalculados, a consulta do repositório roda na transação somente leitura que o próprio Spring Data abre.*/
+@Service
+public class TemaService {
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+
+	public List<TemaResumo> listar() {
+		return catalogoTemaService.resumos();
+	}
+
+	public Optional<TemaResumo> buscarPorId(Long id) {
+		return catalogoTemaService.resumo(id);
+	}
+
+	public List<TemaResumo> buscarPorDescricao(String descricao) {
+		return catalogoTemaService.resumosPorDescricao(descricao);
+	}
+
+	public boolean existe(Long id) {
+		return catalogoTemaService.existe(id);
+	}
+
+	/*Apaga as postagens do tema e depois o tema, com dois DELETEs em massa na mesma transação - nenhuma postagem
+	 *(nem id de postagem) é carregada na memória, então o tempo e a memória não dependem de quantas postagens o tema tem.
+	 *Devolve false se o tema não existe (nesse caso também não havia postagens, pela chave estrangeira). Depois do commit,
+	 *quem chamou retira as postagens do tema do índice de busca e do cache de fragmentos.*/
+	@Transactional
+	public boolean apagar(Long id) {
+
+		postagemRepository.deleteByTemaId(id);
+
+		return temaRepository.deleteTemaById(id) > 0;
+	}
+}
@@ -4,17 +4,27 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.generation.blogpessoal.model.Pagina;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.model.UsuarioResumo;
+import com.generation.blogpessoal.repository.PostagemRepository;
 import com.generation.blogpessoal.repository.UsuarioRepository;
 import com.generation.blogpessoal.security.JwtService;
+import com.generation.blogpessoal.security.SobrecargaException;
+import com.generation.blogpessoal.security.UserDetailsServiceImpl;
+
+import jakarta.persistence.EntityManagerFactory;
  
 @Service
 public class UsuarioService {
@@ -31,10 +41,23 @@ public class UsuarioService {
 	@Autowired
 	private PasswordEncoder passwordEncoder;
  
-	public List<Usuario> getAll() {
-		return usuarioRepository.findAll();
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+ 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+ 
+	@Autowired
+	private PostagemRepository postagemRepository;
+ 
+	//Uma página do diretório de usuários: "apos" é o id do último usuário da página anterior
+	@Transactional(readOnly = true)
+	public Pagina<UsuarioResumo> getAll(Long apos, int limite) {
+		List<UsuarioResumo> usuarios = usuarioRepository.findResumosApos(apos == null ? 0L : apos, Limit.of(limite + 1));
+		return Pagina.de(usuarios, limite, usuario -> String.valueOf(usuario.id()));
 	}
  
+	@Transactional(readOnly = true)
 	public Optional<Usuario> getById(Long id) {
 		return usuarioRepository.findById(id);
 	}
@@ -53,7 +76,9 @@ public class UsuarioService {
  
 	public Optional<Usuario> atualizarUsuario(Usuario usuario) {
  
-		if (!usuarioRepository.findById(usuario.getId()).isPresent()) {
+		Optional<Usuario> usuarioAtual = usuarioRepository.findById(usuario.getId());
+		
+		if (!usuarioAtual.isPresent()) {
 			return Optional.empty();
 		}
  
@@ -64,7 +89,39 @@ public class UsuarioService {
 		}
  
 		usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
-		return Optional.of(usuarioRepository.save(usuario));
+		Usuario usuarioAtualizado = usuarioRepository.save(usuario);
+		
+		// Os dados em cache (inclusive a senha) ficaram desatualizados, tanto no e-mail antigo quanto no novo
+		userDetailsService.invalidar(usuarioAtual.get().getUsuario());
+		userDetailsService.invalidar(usuarioAtualizado.getUsuario());
+		entityManagerFactory.getCache().evict(Usuario.class, usuarioAtualizado.getId());
+		
+		return Optional.of(usuarioAtualizado);
+	}
+	
+	/*Apaga a conta do próprio usuário autenticado: as postagens dele e depois o usuário, com dois DELETEs em massa
+	 *na mesma transação - nenhuma postagem (nem id de postagem) é carregada na memória. Devolve false se o usuário não
+	 *existe. Depois do commit, quem chamou retira as postagens do autor do índice de busca e do cache de fragmentos.*/
+	@Transactional
+	public boolean apagar(Long id, String usuarioAutenticado) {
+ 
+		Optional<Usuario> usuario = usuarioRepository.findById(id);
+ 
+		if (usuario.isEmpty()) {
+			return false;
+		}
+ 
+		if (!usuario.get().getUsuario().equals(usuarioAutenticado)) {
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Só é possível apagar a própria conta!", null);
+		}
+ 
+		postagemRepository.deleteByUsuarioId(id);
+		usuarioRepository.deleteUsuarioById(id);
+ 
+		// Os tokens já emitidos deixam de valer: o JwtAuthFilter não encontra mais o usuário (de novo depois do commit)
+		userDetailsService.invalidar(usuario.get().getUsuario());
+ 
+		return true;
 	}
 	
 	public Optional<UsuarioLogin> autenticarUsuario(Optional<UsuarioLogin> usuarioLogin) {
@@ -83,6 +140,19 @@ public class UsuarioService {
 			return usuarioRepository.findByUsuario(login.getUsuario())
 				.map(usuario -> construirRespostaLogin(login, usuario));
  
+		} catch (SobrecargaException e) {
+ 
+			throw e; //sem capacidade para verificar a senha agora: 503, e não 401
+ 
+		} catch (InternalAuthenticationServiceException e) {
+ 
+			//O DaoAuthenticationProvider embrulha nessa exceção o que sai do UserDetailsService; a sobrecarga continua sendo 503
+			if (e.getCause() instanceof SobrecargaException sobrecarga) {
+				throw sobrecarga;
+			}
+ 
+			return Optional.empty();
+ 
 		} catch (Exception e) {
  
 			return Optional.empty();
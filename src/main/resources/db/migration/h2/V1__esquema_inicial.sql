@@ -0,0 +1,30 @@
+-- Esquema inicial, igual ao de db/migration/mysql e db/migration/postgresql (o H2 é usado nos testes e nos benchmarks).
+
+CREATE TABLE tb_temas (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    descricao VARCHAR(1000),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_usuarios (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nome VARCHAR(255),
+    usuario VARCHAR(255),
+    senha VARCHAR(255),
+    foto VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_postagens (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    titulo VARCHAR(100),
+    texto VARCHAR(1000),
+    data TIMESTAMP(6),
+    tema_id BIGINT,
+    usuario_id BIGINT,
+    PRIMARY KEY (id)
+);
+
+-- Chaves estrangeiras com os nomes que o Hibernate gerava (FK + hash da tabela e da coluna); a V4 dá nomes legíveis a elas
+ALTER TABLE tb_postagens ADD CONSTRAINT FKc8fvybwie3ndsogids89ipisk FOREIGN KEY (tema_id) REFERENCES tb_temas (id);
+ALTER TABLE tb_postagens ADD CONSTRAINT FK3k9trtonj0f77a84tsoylsw6v FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id);
@@ -0,0 +1,4 @@
+-- Nomes legíveis para as chaves estrangeiras das postagens: a PostagemController identifica pelo nome
+-- qual referência não existe quando o banco recusa uma gravação (fk_postagens_tema ou fk_postagens_usuario)
+ALTER TABLE tb_postagens RENAME CONSTRAINT FKc8fvybwie3ndsogids89ipisk TO fk_postagens_tema;
+ALTER TABLE tb_postagens RENAME CONSTRAINT FK3k9trtonj0f77a84tsoylsw6v TO fk_postagens_usuario;
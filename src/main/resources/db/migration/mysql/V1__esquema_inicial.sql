@@ -0,0 +1,31 @@
+-- Esquema inicial: as tabelas como o Hibernate (ddl-auto=update) as criava.
+-- Bancos que já existiam são marcados nesta versão (spring.flyway.baseline-on-migrate) e seguem a partir da V2.
+
+CREATE TABLE tb_temas (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    descricao VARCHAR(1000),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE tb_usuarios (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nome VARCHAR(255),
+    usuario VARCHAR(255),
+    senha VARCHAR(255),
+    foto VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE tb_postagens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    titulo VARCHAR(100),
+    texto VARCHAR(1000),
+    data DATETIME(6),
+    tema_id BIGINT,
+    usuario_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Chaves estrangeiras com os nomes que o Hibernate gerava (FK + hash da tabela e da coluna); a V4 dá nomes legíveis a elas
+ALTER TABLE tb_postagens ADD CONSTRAINT FKc8fvybwie3ndsogids89ipisk FOREIGN KEY (tema_id) REFERENCES tb_temas (id);
+ALTER TABLE tb_postagens ADD CONSTRAINT FK3k9trtonj0f77a84tsoylsw6v FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id);
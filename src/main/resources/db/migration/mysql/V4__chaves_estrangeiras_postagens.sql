@@ -0,0 +1,29 @@
+-- Nomes legíveis para as chaves estrangeiras das postagens: a PostagemController identifica pelo nome
+-- qual referência não existe quando o banco recusa uma gravação (fk_postagens_tema ou fk_postagens_usuario).
+-- O nome que o Hibernate gerou depende da versão que criou o banco, então ele é lido do information_schema.
+-- O MySQL não renomeia chaves estrangeiras: cada uma é apagada e criada de novo no mesmo ALTER TABLE
+-- (e é só criada, se o banco não a tiver).
+
+SET @fk_tema = (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tb_postagens' AND COLUMN_NAME = 'tema_id'
+    AND REFERENCED_TABLE_NAME = 'tb_temas' LIMIT 1);
+
+SET @comando = CONCAT('ALTER TABLE tb_postagens ',
+    IF(@fk_tema IS NULL, '', CONCAT('DROP FOREIGN KEY `', @fk_tema, '`, ')),
+    'ADD CONSTRAINT fk_postagens_tema FOREIGN KEY (tema_id) REFERENCES tb_temas (id)');
+
+PREPARE renomear FROM @comando;
+EXECUTE renomear;
+DEALLOCATE PREPARE renomear;
+
+SET @fk_usuario = (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tb_postagens' AND COLUMN_NAME = 'usuario_id'
+    AND REFERENCED_TABLE_NAME = 'tb_usuarios' LIMIT 1);
+
+SET @comando = CONCAT('ALTER TABLE tb_postagens ',
+    IF(@fk_usuario IS NULL, '', CONCAT('DROP FOREIGN KEY `', @fk_usuario, '`, ')),
+    'ADD CONSTRAINT fk_postagens_usuario FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id)');
+
+PREPARE renomear FROM @comando;
+EXECUTE renomear;
+DEALLOCATE PREPARE renomear;
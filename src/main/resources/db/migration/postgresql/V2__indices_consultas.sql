@@ -0,0 +1,13 @@
+-- Login e autenticação de cada requisição: WHERE usuario = ?
+ALTER TABLE tb_usuarios ADD CONSTRAINT uk_usuarios_usuario UNIQUE (usuario);
+
+-- O link da foto aceita até 5000 caracteres na validação, mas a coluna criada pelo Hibernate tinha 255
+ALTER TABLE tb_usuarios ALTER COLUMN foto TYPE VARCHAR(5000);
+
+-- Listagem por cursor: ORDER BY data DESC, id DESC e WHERE (data, id) < (?, ?)
+CREATE INDEX idx_postagens_data_id ON tb_postagens (data, id);
+
+-- Postagens de um tema / de um autor, na mesma ordem da listagem
+-- (o PostgreSQL não cria índices para as chaves estrangeiras sozinho)
+CREATE INDEX idx_postagens_tema_data ON tb_postagens (tema_id, data, id);
+CREATE INDEX idx_postagens_usuario_data ON tb_postagens (usuario_id, data, id);
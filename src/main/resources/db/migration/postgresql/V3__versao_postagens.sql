@@ -0,0 +1,2 @@
+-- Controle de concorrência otimista das postagens (@Version): as postagens que já existiam começam na versão 0
+ALTER TABLE tb_postagens ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,27 @@
+-- Nomes legíveis para as chaves estrangeiras das postagens: a PostagemController identifica pelo nome
+-- qual referência não existe quando o banco recusa uma gravação (fk_postagens_tema ou fk_postagens_usuario).
+-- O nome que o Hibernate gerou depende da versão que criou o banco, então ele é lido do pg_constraint.
+
+DO $$
+DECLARE
+    chave RECORD;
+BEGIN
+    FOR chave IN
+        SELECT c.conname, a.attname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'tb_postagens'::regclass AND c.contype = 'f' AND a.attname IN ('tema_id', 'usuario_id')
+    LOOP
+        EXECUTE format('ALTER TABLE tb_postagens RENAME CONSTRAINT %I TO %I', chave.conname,
+            CASE chave.attname WHEN 'tema_id' THEN 'fk_postagens_tema' ELSE 'fk_postagens_usuario' END);
+    END LOOP;
+
+    -- Um banco sem a chave estrangeira (removida à mão, por exemplo) passa a tê-la, como no MySQL
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'tb_postagens'::regclass AND conname = 'fk_postagens_tema') THEN
+        ALTER TABLE tb_postagens ADD CONSTRAINT fk_postagens_tema FOREIGN KEY (tema_id) REFERENCES tb_temas (id);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'tb_postagens'::regclass AND conname = 'fk_postagens_usuario') THEN
+        ALTER TABLE tb_postagens ADD CONSTRAINT fk_postagens_usuario FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id);
+    END IF;
+END $$;
@@ -0,0 +1,86 @@
+package com.generation.blogpessoal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*Um banco criado pela aplicação antes das migrações (tabelas do Hibernate, sem o histórico do Flyway)
+ *é marcado na V1 (baseline-on-migrate) e precisa chegar ao esquema atual só com as migrações seguintes.*/
+@SpringBootTest(properties = { "spring.datasource.url=" + MigracaoBancoExistenteTest.URL,
+		"spring.flyway.baseline-on-migrate=true", "spring.flyway.baseline-version=1" })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class MigracaoBancoExistenteTest {
+
+	static final String URL = "jdbc:h2:mem:banco-existente;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+	//As tabelas como o Hibernate (ddl-auto=update) as criava antes das migrações: sem a coluna versao e com as chaves estrangeiras FK + hash
+	private static final List<String> ESQUEMA_HIBERNATE = List.of(
+			"CREATE TABLE tb_temas (id BIGINT GENERATED BY DEFAULT AS IDENTITY, descricao VARCHAR(1000), PRIMARY KEY (id))",
+			"CREATE TABLE tb_usuarios (id BIGINT GENERATED BY DEFAULT AS IDENTITY, nome VARCHAR(255), usuario VARCHAR(255), "
+					+ "senha VARCHAR(255), foto VARCHAR(255), PRIMARY KEY (id))",
+			"CREATE TABLE tb_postagens (id BIGINT GENERATED BY DEFAULT AS IDENTITY, titulo VARCHAR(100), texto VARCHAR(1000), "
+					+ "data TIMESTAMP(6), tema_id BIGINT, usuario_id BIGINT, PRIMARY KEY (id))",
+			"ALTER TABLE tb_postagens ADD CONSTRAINT FKc8fvybwie3ndsogids89ipisk FOREIGN KEY (tema_id) REFERENCES tb_temas",
+			"ALTER TABLE tb_postagens ADD CONSTRAINT FK3k9trtonj0f77a84tsoylsw6v FOREIGN KEY (usuario_id) REFERENCES tb_usuarios");
+
+	//O banco precisa existir antes de o contexto do Spring subir e rodar o Flyway
+	static {
+		try (Connection conexao = DriverManager.getConnection(URL, "sa", "sa")) {
+			for (String comando : ESQUEMA_HIBERNATE) {
+				conexao.createStatement().execute(comando);
+			}
+			conexao.createStatement().execute("INSERT INTO tb_temas (descricao) VALUES ('Tema de antes das migrações')");
+			conexao.createStatement().execute("INSERT INTO tb_postagens (titulo, texto, data, tema_id) "
+					+ "VALUES ('Postagem antiga', 'Texto de antes das migrações', CURRENT_TIMESTAMP, 1)");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@DisplayName("01 - Deve marcar o banco existente na V1 e aplicar as migrações seguintes")
+	void deveMigrarBancoExistente() {
+
+		//When
+		String versaoAtual = flyway.info().current().getVersion().getVersion();
+		Long versaoPostagem = jdbcTemplate.queryForObject("SELECT versao FROM tb_postagens WHERE titulo = 'Postagem antiga'", Long.class);
+
+		//Then
+		assertEquals("4", versaoAtual);
+		assertEquals(0L, versaoPostagem);
+	}
+
+	@Test
+	@DisplayName("02 - Deve trocar os nomes gerados pelo Hibernate pelos nomes das chaves estrangeiras usados nos erros")
+	void deveRenomearChavesEstrangeiras() {
+
+		//When
+		List<String> chaves = jdbcTemplate.queryForList("SELECT LOWER(CONSTRAINT_NAME) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+				+ "WHERE TABLE_NAME = 'TB_POSTAGENS' AND CONSTRAINT_TYPE = 'FOREIGN KEY'", String.class);
+
+		//Then
+		assertEquals(2, chaves.size());
+		assertTrue(chaves.containsAll(List.of("fk_postagens_tema", "fk_postagens_usuario")));
+	}
+}
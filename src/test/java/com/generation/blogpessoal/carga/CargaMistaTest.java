@@ -0,0 +1,360 @@
+package com.generation.blogpessoal.carga;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoLote;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.util.JwtHelper;
+import com.generation.blogpessoal.util.TestBuilder;
+
+/*Teste de carga de ponta a ponta: a aplicação inteira sobe numa porta aleatória com o H2, recebe uma massa de
+ *postagens pela importação em lote e é exercitada por vários clientes simultâneos com um tráfego misto
+ *(login, listagem, busca, cadastro e atualização).
+ *
+ *No fim são exibidos a vazão e os percentis de latência (p50/p95/p99) de cada operação, e o teste falha se a vazão,
+ *a taxa de erros ou o p99 de alguma operação passar dos limites de application-carga.properties.
+ *
+ *Não roda no mvn test comum (tag "carga"); para executar: mvn -Pcarga test
+ *Os limites podem ser trocados na linha de comando, por exemplo: mvn -Pcarga test -Dcarga.limites.vazao-minima=500*/
+@Tag("carga")
+@ActiveProfiles("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CargaMistaTest {
+
+	private static final String SENHA = "rootroot";
+
+	//Proporção de cada operação no tráfego (em partes de 100)
+	private enum Operacao {
+		LISTAR(40), BUSCAR(20), CADASTRAR(15), ATUALIZAR(15), LOGAR(5), TEMAS(5);
+
+		private final int peso;
+
+		Operacao(int peso) {
+			this.peso = peso;
+		}
+
+		static Operacao sortear() {
+			int sorteio = ThreadLocalRandom.current().nextInt(100);
+			for (Operacao operacao : values()) {
+				sorteio -= operacao.peso;
+				if (sorteio < 0) {
+					return operacao;
+				}
+			}
+			return LISTAR;
+		}
+
+		String nome() {
+			return name().toLowerCase();
+		}
+	}
+
+	private static final String[] TERMOS = { "desempenho", "banco", "java", "spring", "consulta", "cache", "teste", "indice" };
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${carga.clientes}")
+	private int clientes;
+
+	@Value("${carga.aquecimento}")
+	private Duration aquecimento;
+
+	@Value("${carga.duracao}")
+	private Duration duracao;
+
+	@Value("${carga.postagens-iniciais}")
+	private int postagensIniciais;
+
+	private final List<Tema> temas = new ArrayList<>();
+	private final List<String> tokens = new ArrayList<>();
+
+	@BeforeAll
+	void inicio() {
+
+		usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Carga", "carga@root.com", SENHA));
+		String token = JwtHelper.obterToken(testRestTemplate, "carga@root.com", SENHA);
+
+		for (int i = 1; i <= 5; i++) {
+			temas.add(testRestTemplate.exchange("/temas", HttpMethod.POST,
+					JwtHelper.criarRequisicaoComToken(TestBuilder.criarTema(null, "Tema da carga número " + i), token), Tema.class).getBody());
+		}
+
+		importarPostagens(token);
+
+		for (int i = 0; i < clientes; i++) {
+			String usuario = "cliente" + i + "@carga.com";
+			usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Cliente " + i, usuario, SENHA));
+			tokens.add(JwtHelper.obterToken(testRestTemplate, usuario, SENHA));
+		}
+	}
+
+	@Test
+	@DisplayName("01 - Deve manter a vazão, a taxa de erros e o p99 de cada operação dentro dos limites")
+	void deveAtenderCargaMista() throws Exception {
+
+		//Given - aquecimento (JIT, pools e caches), sem medir
+		executar(aquecimento);
+
+		//When
+		Map<Operacao, Medicao> medicoes = executar(duracao);
+
+		//Then
+		List<String> violacoes = new ArrayList<>();
+		long total = medicoes.values().stream().mapToLong(Medicao::quantidade).sum();
+		long erros = medicoes.values().stream().mapToLong(Medicao::erros).sum();
+		double segundos = duracao.toMillis() / 1000.0;
+		double vazao = total / segundos;
+
+		System.out.printf("%nCarga mista: %d clientes por %.0f s - %d requisições (%.1f/s), %d erros%n", clientes, segundos, total, vazao, erros);
+		System.out.printf("%-10s %10s %8s %10s %10s %10s %10s%n", "Operação", "Requisições", "Erros", "req/s", "p50 (ms)", "p95 (ms)", "p99 (ms)");
+
+		for (Map.Entry<Operacao, Medicao> entrada : medicoes.entrySet()) {
+
+			Medicao medicao = entrada.getValue();
+			String nome = entrada.getKey().nome();
+			double p99 = medicao.percentil(0.99);
+
+			System.out.printf("%-10s %10d %8d %10.1f %10.1f %10.1f %10.1f%n", nome, medicao.quantidade(), medicao.erros(),
+					medicao.quantidade() / segundos, medicao.percentil(0.50), medicao.percentil(0.95), p99);
+
+			Duration limite = environment.getProperty("carga.limites.p99-maximo." + nome, Duration.class,
+					environment.getProperty("carga.limites.p99-maximo", Duration.class));
+
+			if (p99 > limite.toMillis()) {
+				violacoes.add(String.format("p99 de %s: %.1f ms (limite %d ms)", nome, p99, limite.toMillis()));
+			}
+		}
+
+		double vazaoMinima = environment.getProperty("carga.limites.vazao-minima", Double.class);
+		double taxaErrosMaxima = environment.getProperty("carga.limites.taxa-erros-maxima", Double.class);
+
+		if (vazao < vazaoMinima) {
+			violacoes.add(String.format("vazão: %.1f req/s (mínimo %.1f)", vazao, vazaoMinima));
+		}
+
+		if (total == 0 || (double) erros / total > taxaErrosMaxima) {
+			violacoes.add(String.format("taxa de erros: %d de %d (máximo %.2f%%)", erros, total, taxaErrosMaxima * 100));
+		}
+
+		assertTrue(violacoes.isEmpty(), "Limites de desempenho ultrapassados: " + String.join("; ", violacoes));
+	}
+
+	//Todos os clientes repetem operações sorteadas até o fim do tempo; as medições de cada cliente são somadas no fim
+	private Map<Operacao, Medicao> executar(Duration tempo) throws Exception {
+
+		long fim = System.nanoTime() + tempo.toNanos();
+		ExecutorService executor = Executors.newFixedThreadPool(clientes);
+		List<Future<Map<Operacao, Medicao>>> resultados = new ArrayList<>();
+
+		for (int i = 0; i < clientes; i++) {
+			Cliente cliente = new Cliente(i, tokens.get(i));
+			resultados.add(executor.submit(() -> cliente.executarAte(fim)));
+		}
+
+		Map<Operacao, Medicao> total = new EnumMap<>(Operacao.class);
+
+		try {
+			for (Future<Map<Operacao, Medicao>> resultado : resultados) {
+				resultado.get().forEach((operacao, medicao) -> total.merge(operacao, medicao, Medicao::somar));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return total;
+	}
+
+	//A massa inicial entra pela importação em lote, para que as postagens também fiquem no índice de busca
+	private void importarPostagens(String token) {
+
+		StringBuilder arquivo = new StringBuilder();
+
+		for (int i = 1; i <= postagensIniciais; i++) {
+			String termo = TERMOS[i % TERMOS.length];
+			arquivo.append("{\"titulo\":\"Postagem sobre ").append(termo).append(' ').append(i)
+					.append("\",\"texto\":\"Texto da postagem ").append(i).append(" sobre ").append(termo)
+					.append(" e ").append(TERMOS[(i * 7) % TERMOS.length]).append(", gerada para o teste de carga.\",")
+					.append("\"tema\":{\"id\":").append(temas.get(i % temas.size()).getId()).append("}}\n");
+		}
+
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setContentType(MediaType.APPLICATION_NDJSON);
+
+		ResponseEntity<ResultadoLote> resposta = testRestTemplate.exchange("/postagens/lote", HttpMethod.POST,
+				new HttpEntity<>(arquivo.toString(), cabecalho), ResultadoLote.class);
+
+		assertEquals(postagensIniciais, resposta.getBody().inseridas());
+	}
+
+	private class Cliente {
+
+		private final int numero;
+		private final String token;
+		private final List<Postagem> proprias = new ArrayList<>();
+		private final Map<Operacao, Medicao> medicoes = new EnumMap<>(Operacao.class);
+
+		Cliente(int numero, String token) {
+			this.numero = numero;
+			this.token = token;
+		}
+
+		Map<Operacao, Medicao> executarAte(long fim) {
+
+			while (System.nanoTime() < fim && !Thread.currentThread().isInterrupted()) {
+
+				Operacao operacao = Operacao.sortear();
+
+				if (operacao == Operacao.ATUALIZAR && proprias.isEmpty()) {
+					operacao = Operacao.CADASTRAR;
+				}
+
+				long inicio = System.nanoTime();
+				boolean sucesso;
+
+				try {
+					sucesso = executar(operacao);
+				} catch (RuntimeException e) {
+					sucesso = false;
+				}
+
+				medicoes.computeIfAbsent(operacao, chave -> new Medicao()).registrar(System.nanoTime() - inicio, sucesso);
+			}
+
+			return medicoes;
+		}
+
+		private boolean executar(Operacao operacao) {
+
+			ThreadLocalRandom sorteio = ThreadLocalRandom.current();
+
+			switch (operacao) {
+			case LISTAR:
+				return ok(testRestTemplate.exchange("/postagens?limite=20", HttpMethod.GET,
+						JwtHelper.criarRequisicaoComToken(token), String.class));
+			case BUSCAR:
+				return ok(testRestTemplate.exchange("/postagens/busca?q=" + TERMOS[sorteio.nextInt(TERMOS.length)],
+						HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class));
+			case TEMAS:
+				return ok(testRestTemplate.exchange("/temas", HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class));
+			case LOGAR:
+				return ok(testRestTemplate.exchange("/usuarios/logar", HttpMethod.POST,
+						new HttpEntity<>(TestBuilder.criarUsuarioLogin("cliente" + numero + "@carga.com", SENHA)), UsuarioLogin.class));
+			case CADASTRAR: {
+				Tema tema = temas.get(sorteio.nextInt(temas.size()));
+				Postagem postagem = TestBuilder.criarPostagem(0L, "Nova postagem do cliente " + numero,
+						"Postagem cadastrada durante o teste de carga sobre " + TERMOS[sorteio.nextInt(TERMOS.length)], tema);
+				ResponseEntity<Postagem> resposta = testRestTemplate.exchange("/postagens", HttpMethod.POST,
+						JwtHelper.criarRequisicaoComToken(postagem, token), Postagem.class);
+				if (resposta.getStatusCode() == HttpStatus.CREATED && proprias.size() < 50) {
+					proprias.add(resposta.getBody());
+				}
+				return resposta.getStatusCode() == HttpStatus.CREATED;
+			}
+			case ATUALIZAR: {
+				Postagem postagem = proprias.get(sorteio.nextInt(proprias.size()));
+				postagem.setTexto("Texto atualizado durante o teste de carga em " + System.nanoTime());
+				return ok(testRestTemplate.exchange("/postagens", HttpMethod.PUT,
+						JwtHelper.criarRequisicaoComToken(postagem, token), Postagem.class));
+			}
+			default:
+				throw new IllegalStateException("Operação desconhecida: " + operacao);
+			}
+		}
+
+		private boolean ok(ResponseEntity<?> resposta) {
+			return resposta.getStatusCode().is2xxSuccessful();
+		}
+	}
+
+	//Latências (em nanossegundos) e erros de uma operação
+	private static class Medicao {
+
+		private long[] latencias = new long[1024];
+		private int quantidade;
+		private long erros;
+
+		void registrar(long latencia, boolean sucesso) {
+
+			if (quantidade == latencias.length) {
+				latencias = Arrays.copyOf(latencias, quantidade * 2);
+			}
+
+			latencias[quantidade++] = latencia;
+
+			if (!sucesso) {
+				erros++;
+			}
+		}
+
+		static Medicao somar(Medicao uma, Medicao outra) {
+			Medicao soma = new Medicao();
+			soma.latencias = Arrays.copyOf(uma.latencias, uma.quantidade + outra.quantidade);
+			System.arraycopy(outra.latencias, 0, soma.latencias, uma.quantidade, outra.quantidade);
+			soma.quantidade = uma.quantidade + outra.quantidade;
+			soma.erros = uma.erros + outra.erros;
+			return soma;
+		}
+
+		long quantidade() {
+			return quantidade;
+		}
+
+		long erros() {
+			return erros;
+		}
+
+		//Percentil em milissegundos
+		double percentil(double fracao) {
+
+			if (quantidade == 0) {
+				return 0;
+			}
+
+			long[] ordenadas = Arrays.copyOf(latencias, quantidade);
+			Arrays.sort(ordenadas);
+			int posicao = (int) Math.ceil(fracao * quantidade) - 1;
+			return ordenadas[Math.max(0, posicao)] / 1_000_000.0;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.util.JwtHelper;
+import com.generation.blogpessoal.util.TestBuilder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"blogpessoal.gravacao-agrupada.ativa=true", "blogpessoal.gravacao-agrupada.janela=50ms" })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class GravacaoAgrupadaControllerTest {
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private static final String USUARIO = "agrupada@root.com";
+	private static final String SENHA = "rootroot";
+	private static final int REQUISICOES = 16;
+
+	private String token;
+	private Tema tema;
+
+	@BeforeAll
+	void inicio() {
+		usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Root", USUARIO, SENHA));
+		token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+
+		tema = testRestTemplate.exchange("/temas", HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarTema(null, "Tema da gravação agrupada"), token), Tema.class).getBody();
+	}
+
+	@Test
+	@DisplayName("01 - Deve gravar postagens simultâneas em grupos, com um id próprio para cada requisição")
+	void deveGravarPostagensEmGrupo() throws Exception {
+
+		//Given
+		long postagensAntes = postagemRepository.count();
+		ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES);
+		List<Future<ResponseEntity<Postagem>>> respostas = new ArrayList<>();
+
+		//When
+		try {
+			for (int i = 1; i <= REQUISICOES; i++) {
+				Postagem postagem = TestBuilder.criarPostagem(0L, "Postagem agrupada " + i, "Texto da postagem agrupada " + i, tema);
+				respostas.add(executor.submit(() -> testRestTemplate.exchange("/postagens", HttpMethod.POST,
+						JwtHelper.criarRequisicaoComToken(postagem, token), Postagem.class)));
+			}
+
+			Set<Long> ids = new HashSet<>();
+
+			//Then
+			for (Future<ResponseEntity<Postagem>> resposta : respostas) {
+				assertEquals(HttpStatus.CREATED, resposta.get().getStatusCode());
+				Long id = resposta.get().getBody().getId();
+				assertEquals("\"" + id + "-0\"", resposta.get().getHeaders().getETag());
+				ids.add(id);
+			}
+
+			assertEquals(REQUISICOES, ids.size());
+		} finally {
+			executor.shutdown();
+		}
+
+		double gravadas = meterRegistry.find("postagens.gravacao.grupo").summaries().stream()
+				.mapToDouble(DistributionSummary::totalAmount).sum();
+		long quantidadeGrupos = meterRegistry.find("postagens.gravacao.grupo").summaries().stream()
+				.mapToLong(DistributionSummary::count).sum();
+
+		assertEquals(postagensAntes + REQUISICOES, postagemRepository.count());
+		assertEquals(REQUISICOES, gravadas);
+		assertTrue(quantidadeGrupos < REQUISICOES, "As postagens deveriam ter sido gravadas em menos transações que requisições");
+	}
+
+	@Test
+	@DisplayName("02 - Uma postagem inválida no grupo não deve impedir a gravação das demais")
+	void deveIsolarPostagemInvalida() throws Exception {
+
+		//Given
+		Postagem invalida = TestBuilder.criarPostagem(0L, "Postagem de usuário inexistente", "Texto de um usuário que não existe", tema);
+		invalida.setUsuario(TestBuilder.criarUsuario(999999L, "Ninguém", "ninguem@root.com", SENHA));
+		Postagem valida = TestBuilder.criarPostagem(0L, "Postagem válida do grupo", "Texto da postagem válida do grupo", tema);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		//When
+		try {
+			Future<ResponseEntity<String>> respostaInvalida = executor.submit(() -> testRestTemplate.exchange("/postagens",
+					HttpMethod.POST, JwtHelper.criarRequisicaoComToken(invalida, token), String.class));
+			Future<ResponseEntity<Postagem>> respostaValida = executor.submit(() -> testRestTemplate.exchange("/postagens",
+					HttpMethod.POST, JwtHelper.criarRequisicaoComToken(valida, token), Postagem.class));
+
+			//Then
+			assertEquals(HttpStatus.BAD_REQUEST, respostaInvalida.get().getStatusCode());
+			assertEquals(HttpStatus.CREATED, respostaValida.get().getStatusCode());
+			assertTrue(postagemRepository.existsById(respostaValida.get().getBody().getId()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.service.CatalogoTemaService;
+import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.util.JwtHelper;
+import com.generation.blogpessoal.util.TestBuilder;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class LeituraReativaControllerTest {
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private static final String BASE_URL = "/v2";
+	private static final String USUARIO = "v2@root.com";
+	private static final String SENHA = "rootroot";
+	private static final int TOTAL_POSTAGENS = 250; //mais de duas páginas internas de 100 postagens
+
+	private String token;
+
+	@BeforeAll
+	void inicio() {
+		usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Root", USUARIO, SENHA));
+		token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+
+		Tema tema = testRestTemplate.exchange("/temas", HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarTema(null, "Tema da API v2"), token), Tema.class).getBody();
+
+		List<Postagem> postagens = new ArrayList<>();
+
+		for (int i = 1; i <= TOTAL_POSTAGENS; i++) {
+			postagens.add(TestBuilder.criarPostagem(null, "Postagem v2 " + i, "Texto da postagem v2 número " + i, tema));
+		}
+
+		postagemRepository.saveAll(postagens);
+	}
+
+	@Test
+	@DisplayName("01 - Deve transmitir todas as postagens em NDJSON, continuando com o cursor, sem repetir registros")
+	void deveTransmitirTodasAsPostagens() throws Exception {
+
+		//Given
+		int limite = 100;
+		Set<Long> ids = new HashSet<>();
+		int lidas = 0;
+		Long apos = null;
+		List<String> linhas;
+
+		//When
+		do {
+			ResponseEntity<String> resposta = testRestTemplate.exchange(BASE_URL + "/postagens?limite=" + limite
+					+ (apos == null ? "" : "&apos=" + apos), HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class);
+
+			assertEquals(HttpStatus.OK, resposta.getStatusCode());
+			linhas = resposta.getBody() == null ? List.of() : resposta.getBody().lines().toList();
+
+			for (String linha : linhas) {
+				apos = objectMapper.readValue(linha, PostagemResumo.class).id();
+				ids.add(apos);
+			}
+
+			lidas += linhas.size();
+		} while (linhas.size() == limite);
+
+		//Then
+		assertEquals(postagemRepository.count(), lidas);
+		assertEquals(lidas, ids.size());
+	}
+
+	@Test
+	@DisplayName("02 - Deve buscar uma postagem por id e responder 404 quando ela não existe")
+	void deveBuscarPostagemPorId() {
+
+		//Given
+		Postagem postagem = postagemRepository.findAll().get(0);
+
+		//When
+		ResponseEntity<PostagemResumo> encontrada = testRestTemplate.exchange(BASE_URL + "/postagens/" + postagem.getId(),
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PostagemResumo.class);
+		ResponseEntity<String> inexistente = testRestTemplate.exchange(BASE_URL + "/postagens/999999",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, encontrada.getStatusCode());
+		assertEquals(postagem.getTitulo(), encontrada.getBody().titulo());
+		assertEquals(HttpStatus.NOT_FOUND, inexistente.getStatusCode());
+	}
+
+	@Test
+	@DisplayName("03 - Deve transmitir os temas do catálogo em NDJSON")
+	void deveTransmitirTemas() {
+
+		//When
+		ResponseEntity<String> resposta = testRestTemplate.exchange(BASE_URL + "/temas", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(catalogoTemaService.catalogo().temas().size(), resposta.getBody().lines().count());
+		assertTrue(resposta.getBody().contains("Tema da API v2"));
+	}
+
+	@Test
+	@DisplayName("04 - Não deve responder sem o token JWT")
+	void naoDeveResponderSemToken() {
+
+		//When
+		ResponseEntity<String> resposta = testRestTemplate.getForEntity(BASE_URL + "/postagens", String.class);
+
+		//Then
+		assertEquals(HttpStatus.UNAUTHORIZED, resposta.getStatusCode());
+	}
+
+	@Test
+	@DisplayName("05 - Deve limitar as postagens de cada resposta e responder 400 para um cursor inexistente")
+	void deveLimitarPostagensPorResposta() {
+
+		//When
+		ResponseEntity<String> limitada = testRestTemplate.exchange(BASE_URL + "/postagens?limite=10", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		ResponseEntity<String> cursorInexistente = testRestTemplate.exchange(BASE_URL + "/postagens?apos=999999", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, limitada.getStatusCode());
+		assertEquals(10, limitada.getBody().lines().count());
+		assertEquals(HttpStatus.BAD_REQUEST, cursorInexistente.getStatusCode());
+	}
+}
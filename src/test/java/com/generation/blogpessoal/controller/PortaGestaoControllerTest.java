@@ -0,0 +1,51 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+//Actuator numa porta de gestão sorteada, separada da API: só nela as métricas são lidas sem token.
+//Os testes do Spring Boot desligam a exportação das métricas; @AutoConfigureObservability liga o /actuator/prometheus
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class PortaGestaoControllerTest {
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@LocalManagementPort
+	private int portaGestao;
+
+	@Test
+	@DisplayName("01 - Deve responder as métricas sem token na porta de gestão, e não na porta da API")
+	void deveResponderMetricasSoNaPortaDeGestao() {
+
+		//When
+		ResponseEntity<String> gestao = testRestTemplate.exchange("http://localhost:" + portaGestao + "/actuator/prometheus",
+				HttpMethod.GET, null, String.class);
+		ResponseEntity<String> health = testRestTemplate.exchange("http://localhost:" + portaGestao + "/actuator/health",
+				HttpMethod.GET, null, String.class);
+		ResponseEntity<String> api = testRestTemplate.exchange("/actuator/prometheus", HttpMethod.GET, null, String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, gestao.getStatusCode());
+		assertTrue(gestao.getBody().contains("jvm_memory_used_bytes"));
+		assertEquals(HttpStatus.OK, health.getStatusCode());
+		assertEquals(HttpStatus.UNAUTHORIZED, api.getStatusCode());
+	}
+}
@@ -0,0 +1,652 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.ResultadoBusca;
+import com.generation.blogpessoal.model.ResultadoLote;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.util.JwtHelper;
+import com.generation.blogpessoal.util.TestBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class PostagemControllerTest {
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private static final String BASE_URL = "/postagens";
+	private static final String USUARIO = "postagens@root.com";
+	private static final String SENHA = "rootroot";
+	private static final int TOTAL_POSTAGENS = 7;
+
+	private static final ParameterizedTypeReference<Pagina<PostagemResumo>> PAGINA_POSTAGENS =
+			new ParameterizedTypeReference<Pagina<PostagemResumo>>() {};
+
+	private static final ParameterizedTypeReference<Pagina<ResultadoBusca>> PAGINA_BUSCA =
+			new ParameterizedTypeReference<Pagina<ResultadoBusca>>() {};
+
+	private String token;
+	private Tema tema;
+
+	@BeforeAll
+	void inicio() {
+		postagemRepository.deleteAll();
+		usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Root", USUARIO, SENHA));
+		token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+
+		tema = temaRepository.save(TestBuilder.criarTema(null, "Tema das postagens de teste"));
+
+		for (int i = 1; i <= TOTAL_POSTAGENS; i++) {
+			postagemRepository.save(TestBuilder.criarPostagem(null, "Postagem " + i, "Texto da postagem número " + i, tema));
+		}
+	}
+
+	@Test
+	@DisplayName("01 - Deve percorrer todas as postagens por cursor sem repetir registros")
+	void devePaginarPorCursor() {
+
+		//Given
+		Set<Long> ids = new HashSet<>();
+		String cursor = null;
+		int paginas = 0;
+
+		//When
+		do {
+			String url = BASE_URL + "?limite=3" + (cursor != null ? "&apos=" + cursor : "");
+			ResponseEntity<Pagina<PostagemResumo>> resposta = testRestTemplate.exchange(url, HttpMethod.GET,
+					JwtHelper.criarRequisicaoComToken(token), PAGINA_POSTAGENS);
+
+			assertEquals(HttpStatus.OK, resposta.getStatusCode());
+			assertNotNull(resposta.getBody());
+
+			resposta.getBody().itens().forEach(postagem -> ids.add(postagem.id()));
+			cursor = resposta.getBody().proximo();
+			paginas++;
+
+		} while (cursor != null);
+
+		//Then
+		assertEquals(TOTAL_POSTAGENS, ids.size());
+		assertEquals(3, paginas);
+	}
+
+	@Test
+	@DisplayName("02 - Deve retornar a última página sem cursor de próxima página")
+	void deveRetornarUltimaPaginaSemCursor() {
+
+		//When
+		ResponseEntity<Pagina<PostagemResumo>> resposta = testRestTemplate.exchange(BASE_URL + "?limite=50", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), PAGINA_POSTAGENS);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(TOTAL_POSTAGENS, resposta.getBody().itens().size());
+		assertNull(resposta.getBody().proximo());
+	}
+
+	@Test
+	@DisplayName("03 - Não deve aceitar um cursor inválido")
+	void naoDeveAceitarCursorInvalido() {
+
+		//When
+		ResponseEntity<String> resposta = testRestTemplate.exchange(BASE_URL + "?apos=cursor-invalido", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.BAD_REQUEST, resposta.getStatusCode());
+	}
+
+	@Test
+	@DisplayName("04 - Deve encontrar uma postagem cadastrada pela busca textual, ignorando acentos e plural")
+	void deveBuscarPostagemPeloTexto() {
+
+		//Given
+		Postagem postagem = TestBuilder.criarPostagem(0L, "Canções de ninar", "Coletânea de músicas para crianças dormirem", tema);
+		ResponseEntity<Postagem> cadastro = testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(postagem, token), Postagem.class);
+		assertEquals(HttpStatus.CREATED, cadastro.getStatusCode());
+
+		//When
+		ResponseEntity<Pagina<ResultadoBusca>> resposta = testRestTemplate.exchange(BASE_URL + "/busca?q=cancao musica",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PAGINA_BUSCA);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(1, resposta.getBody().itens().size());
+		assertEquals(cadastro.getBody().getId(), resposta.getBody().itens().get(0).id());
+	}
+
+	@Test
+	@DisplayName("05 - Não deve encontrar postagens para termos que não existem no índice")
+	void naoDeveBuscarTermoInexistente() {
+
+		//When
+		ResponseEntity<Pagina<ResultadoBusca>> resposta = testRestTemplate.exchange(BASE_URL + "/busca?q=inexistente",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PAGINA_BUSCA);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(0, resposta.getBody().itens().size());
+		assertNull(resposta.getBody().proximo());
+	}
+
+	@Test
+	@DisplayName("06 - Deve buscar a postagem por id com tema e autor achatados, sem dados sensíveis do usuário")
+	void deveBuscarPostagemResumidaPorId() {
+
+		//Given
+		Postagem postagem = postagemRepository.findAll().get(0);
+
+		//When
+		ResponseEntity<String> resposta = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertTrue(resposta.getBody().contains("\"temaDescricao\":\"" + tema.getDescricao() + "\""));
+		assertFalse(resposta.getBody().contains("senha"));
+	}
+
+	@Test
+	@DisplayName("07 - Deve responder 304 quando o cliente já tem a versão atual da postagem")
+	void deveResponderPostagemNaoModificada() {
+
+		//Given
+		Postagem postagem = postagemRepository.findAll().get(0);
+		ResponseEntity<String> primeira = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		String etag = primeira.getHeaders().getETag();
+
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setIfNoneMatch(etag);
+
+		//When
+		ResponseEntity<String> segunda = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.GET,
+				new HttpEntity<>(cabecalho), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, primeira.getStatusCode());
+		assertNotNull(etag);
+		assertEquals(HttpStatus.NOT_MODIFIED, segunda.getStatusCode());
+		assertNull(segunda.getBody());
+	}
+
+	@Test
+	@DisplayName("08 - Não deve sobrescrever uma postagem alterada depois do ETag informado no If-Match")
+	void naoDeveSobrescreverPostagemAlterada() {
+
+		//Given
+		Postagem postagem = postagemRepository.findAll().get(0);
+		String etag = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getHeaders().getETag();
+
+		ResponseEntity<Postagem> primeiraAlteracao = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT,
+				requisicaoComIfMatch(TestBuilder.criarPostagem(postagem.getId(), "Primeira alteração", "Texto alterado", tema), etag),
+				Postagem.class);
+
+		//When
+		ResponseEntity<String> segundaAlteracao = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT,
+				requisicaoComIfMatch(TestBuilder.criarPostagem(postagem.getId(), "Segunda alteração", "Texto alterado", tema), etag),
+				String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, primeiraAlteracao.getStatusCode());
+		assertNotEquals(etag, primeiraAlteracao.getHeaders().getETag());
+		assertEquals(HttpStatus.PRECONDITION_FAILED, segundaAlteracao.getStatusCode());
+		assertEquals("Primeira alteração", postagemRepository.findById(postagem.getId()).get().getTitulo());
+	}
+
+	@Test
+	@DisplayName("09 - Deve importar postagens em lote e informar o resultado de cada linha")
+	void deveImportarPostagensEmLote() {
+
+		//Given
+		String arquivo = String.join("\n",
+				"{\"titulo\":\"Importada um\",\"texto\":\"Primeira postagem importada\",\"tema\":{\"id\":" + tema.getId() + "}}",
+				"{\"titulo\":\"Curto\",\"texto\":\"curto\",\"tema\":{\"id\":" + tema.getId() + "}}",
+				"",
+				"{\"titulo\":\"Importada dois\",\"texto\":\"Segunda postagem importada\",\"tema\":{\"id\":999999}}",
+				"{isto não é json}",
+				"{\"titulo\":\"Importada três\",\"texto\":\"Terceira postagem importada\",\"tema\":{\"id\":" + tema.getId() + "}}");
+
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setContentType(MediaType.APPLICATION_NDJSON);
+
+		//When
+		ResponseEntity<ResultadoLote> resposta = testRestTemplate.exchange(BASE_URL + "/lote", HttpMethod.POST,
+				new HttpEntity<>(arquivo, cabecalho), ResultadoLote.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(2, resposta.getBody().inseridas());
+		assertEquals(3, resposta.getBody().rejeitadas());
+		assertEquals(List.of(1, 2, 4, 5, 6), resposta.getBody().linhas().stream().map(ResultadoLote.Linha::linha).toList());
+		assertTrue(postagemRepository.existsById(resposta.getBody().linhas().get(0).id()));
+		assertEquals("O tema não existe!", resposta.getBody().linhas().get(2).erro());
+
+		ResponseEntity<Pagina<ResultadoBusca>> busca = testRestTemplate.exchange(BASE_URL + "/busca?q=importada",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PAGINA_BUSCA);
+		assertEquals(2, busca.getBody().itens().size());
+	}
+
+	@Test
+	@DisplayName("10 - Deve exportar todas as postagens em NDJSON e em CSV, com a data no mesmo formato")
+	void deveExportarPostagens() {
+
+		//Given
+		long total = postagemRepository.count();
+
+		//When
+		ResponseEntity<String> ndjson = testRestTemplate.exchange(BASE_URL + "/exportar", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		ResponseEntity<String> csv = testRestTemplate.exchange(BASE_URL + "/exportar?formato=csv", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, ndjson.getStatusCode());
+		assertEquals(total, ndjson.getBody().lines().count());
+		assertTrue(ndjson.getBody().lines().allMatch(linha -> linha.startsWith("{\"id\":")));
+
+		assertEquals(HttpStatus.OK, csv.getStatusCode());
+		assertEquals(total + 1, csv.getBody().lines().count());
+		assertTrue(csv.getBody().startsWith("id,titulo,texto,data"));
+
+		//A data sai no mesmo formato (spring.jackson.date-format) nos dois arquivos
+		Matcher primeira = Pattern.compile("^\\{\"id\":(\\d+),.*\"data\":\"([^\"]+)\"").matcher(ndjson.getBody().lines().findFirst().orElseThrow());
+		assertTrue(primeira.find());
+		assertTrue(primeira.group(2).matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+		assertTrue(csv.getBody().lines().anyMatch(linha -> linha.startsWith(primeira.group(1) + ",") && linha.contains("," + primeira.group(2) + ",")));
+	}
+
+	@Test
+	@DisplayName("11 - Deve cadastrar e atualizar uma postagem com um único comando no banco")
+	void deveGravarComUmUnicoComando() {
+
+		//Given
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long comandosAntes = estatisticas.getPrepareStatementCount();
+
+		//When
+		ResponseEntity<Postagem> cadastro = testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarPostagem(0L, "Postagem de um comando", "Texto gravado com um INSERT", tema), token),
+				Postagem.class);
+		long comandosCadastro = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<Postagem> alteracao = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT,
+				requisicaoComIfMatch(TestBuilder.criarPostagem(cadastro.getBody().getId(), "Postagem alterada", "Texto alterado com um UPDATE", tema),
+						cadastro.getHeaders().getETag()), Postagem.class);
+		long comandosAlteracao = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		//Then
+		assertEquals(HttpStatus.CREATED, cadastro.getStatusCode());
+		assertEquals(HttpStatus.OK, alteracao.getStatusCode());
+		assertEquals(1, comandosCadastro);
+		assertEquals(1, comandosAlteracao);
+		assertEquals("\"" + cadastro.getBody().getId() + "-1\"", alteracao.getHeaders().getETag());
+		assertEquals(tema.getDescricao(), alteracao.getBody().getTema().getDescricao());
+		assertEquals("Postagem alterada", postagemRepository.findById(cadastro.getBody().getId()).get().getTitulo());
+	}
+
+	@Test
+	@DisplayName("12 - Deve responder 400 para um tema inexistente e 404 para uma postagem inexistente")
+	void deveTraduzirViolacoesDaChaveEstrangeira() {
+
+		//Given
+		Tema inexistente = TestBuilder.criarTema(999999L, "Tema que não existe");
+		Postagem existente = postagemRepository.findAll().get(0);
+
+		//When
+		ResponseEntity<String> cadastro = testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarPostagem(0L, "Postagem sem tema", "Texto de um tema inexistente", inexistente), token),
+				String.class);
+		ResponseEntity<String> alteracao = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarPostagem(existente.getId(), "Postagem sem tema", "Texto de um tema inexistente", inexistente), token),
+				String.class);
+		ResponseEntity<String> postagemInexistente = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarPostagem(999999L, "Postagem inexistente", "Texto de uma postagem inexistente", tema), token),
+				String.class);
+		HttpHeaders cabecalhoSemId = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalhoSemId.setContentType(MediaType.APPLICATION_JSON);
+		cabecalhoSemId.setIfMatch("\"1-0\"");
+		ResponseEntity<String> semId = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT, new HttpEntity<>(
+				"{\"titulo\": \"Postagem sem id\", \"texto\": \"Texto de uma postagem sem id\", \"tema\": {\"id\": " + tema.getId() + "}}",
+				cabecalhoSemId), String.class);
+
+		Postagem autorInexistente = TestBuilder.criarPostagem(null, "Postagem sem autor", "Texto de um autor inexistente", tema);
+		autorInexistente.setUsuario(TestBuilder.criarUsuario(999999L, "Ninguém", "ninguem@root.com", SENHA));
+		ResponseEntity<String> cadastroSemAutor = testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(autorInexistente, token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.BAD_REQUEST, cadastro.getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, alteracao.getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, postagemInexistente.getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, semId.getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, cadastroSemAutor.getStatusCode());
+		assertEquals(existente.getTitulo(), postagemRepository.findById(existente.getId()).get().getTitulo());
+	}
+
+	@Test
+	@DisplayName("13 - Deve alterar só o título pelo PATCH, mantendo o texto e o tema")
+	void deveAlterarSomenteOTitulo() {
+
+		//Given
+		Postagem postagem = postagemRepository.findAll().get(0);
+		String etag = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getHeaders().getETag();
+
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setContentType(MediaType.parseMediaType("application/merge-patch+json"));
+		cabecalho.setIfMatch(etag);
+
+		//When
+		ResponseEntity<Void> resposta = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.PATCH,
+				new HttpEntity<>("{\"titulo\": \"Título alterado pelo patch\"}", cabecalho), Void.class);
+		ResponseEntity<String> repetida = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.PATCH,
+				new HttpEntity<>("{\"titulo\": \"Título alterado de novo\"}", cabecalho), String.class);
+
+		//Then
+		Postagem alterada = postagemRepository.findById(postagem.getId()).get();
+
+		assertEquals(HttpStatus.NO_CONTENT, resposta.getStatusCode());
+		assertEquals("\"" + postagem.getId() + "-" + (postagem.getVersao() + 1) + "\"", resposta.getHeaders().getETag());
+		assertEquals(HttpStatus.PRECONDITION_FAILED, repetida.getStatusCode());
+		assertEquals("Título alterado pelo patch", alterada.getTitulo());
+		assertEquals(postagem.getTexto(), alterada.getTexto());
+		assertEquals(postagem.getTema().getId(), alterada.getTema().getId());
+		assertEquals(1, testRestTemplate.exchange(BASE_URL + "/busca?q=patch", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), PAGINA_BUSCA).getBody().itens().size());
+	}
+
+	@Test
+	@DisplayName("14 - Não deve aplicar um PATCH com atributos inválidos ou em uma postagem inexistente")
+	void naoDeveAplicarPatchInvalido() {
+
+		//Given
+		Postagem postagem = postagemRepository.findAll().get(0);
+		String url = BASE_URL + "/" + postagem.getId();
+
+		//When
+		HttpStatus tituloCurto = patch(url, "{\"titulo\": \"abc\"}");
+		HttpStatus semTema = patch(url, "{\"tema\": null}");
+		HttpStatus temaInexistente = patch(url, "{\"tema\": {\"id\": 999999}}");
+		HttpStatus atributoDesconhecido = patch(url, "{\"autor\": \"Root\"}");
+		HttpStatus vazio = patch(url, "{}");
+		HttpStatus postagemInexistente = patch(BASE_URL + "/999999", "{\"titulo\": \"Título de ninguém\"}");
+
+		//Then
+		assertEquals(HttpStatus.BAD_REQUEST, tituloCurto);
+		assertEquals(HttpStatus.BAD_REQUEST, semTema);
+		assertEquals(HttpStatus.BAD_REQUEST, temaInexistente);
+		assertEquals(HttpStatus.BAD_REQUEST, atributoDesconhecido);
+		assertEquals(HttpStatus.BAD_REQUEST, vazio);
+		assertEquals(HttpStatus.NOT_FOUND, postagemInexistente);
+		assertEquals(postagem.getVersao(), postagemRepository.findById(postagem.getId()).get().getVersao());
+	}
+
+	@Test
+	@DisplayName("15 - Deve reaproveitar o JSON da postagem em cache e gerar um novo quando a postagem ou o tema mudam")
+	void deveReaproveitarFragmentoJson() {
+
+		//Given
+		Tema temaFragmentos = temaRepository.save(TestBuilder.criarTema(null, "Tema dos fragmentos"));
+		Postagem postagem = postagemRepository.save(TestBuilder.criarPostagem(null, "Postagem dos fragmentos",
+				"Texto da postagem dos fragmentos", temaFragmentos));
+		String url = BASE_URL + "/" + postagem.getId();
+
+		//When
+		String primeira = testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class).getBody();
+		double acertosAntes = acertosFragmentos();
+		String segunda = testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class).getBody();
+		String listagem = testRestTemplate.exchange(BASE_URL + "?limite=100", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getBody();
+
+		HttpStatus alteracao = patch(url, "{\"titulo\": \"Postagem dos fragmentos alterada\"}");
+		String alterada = testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class).getBody();
+
+		temaFragmentos.setDescricao("Tema dos fragmentos renomeado");
+		temaRepository.save(temaFragmentos);
+		String renomeada = testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class).getBody();
+
+		//Then
+		assertEquals(primeira, segunda);
+		assertTrue(listagem.contains(primeira));
+		assertTrue(acertosFragmentos() >= acertosAntes + 2);
+		assertEquals(HttpStatus.NO_CONTENT, alteracao);
+		assertTrue(alterada.contains("\"titulo\":\"Postagem dos fragmentos alterada\""));
+		assertTrue(renomeada.contains("\"temaDescricao\":\"Tema dos fragmentos renomeado\""));
+		assertEquals(alterada.replace("Tema dos fragmentos", "Tema dos fragmentos renomeado"), renomeada);
+	}
+
+	@Test
+	@DisplayName("16 - Deve montar a partir dos fragmentos uma listagem maior que o buffer de saída do Jackson")
+	void deveListarFragmentosMaioresQueBuffer() {
+
+		//Given
+		Tema temaLongo = temaRepository.save(TestBuilder.criarTema(null, "Tema das postagens longas"));
+		String texto = "Acentuação e ç em cada bloco. ".repeat(33);
+
+		for (int i = 1; i <= 20; i++) {
+			postagemRepository.save(TestBuilder.criarPostagem(null, "Postagem longa " + i, texto, temaLongo));
+		}
+
+		String url = "/temas/" + temaLongo.getId() + "/postagens?limite=100";
+
+		//When
+		ResponseEntity<String> primeira = testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class);
+		double acertosAntes = acertosFragmentos();
+		ResponseEntity<Pagina<PostagemResumo>> segunda = testRestTemplate.exchange(url, HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), PAGINA_POSTAGENS);
+		ResponseEntity<String> terceira = testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, segunda.getStatusCode());
+		assertTrue(primeira.getBody().length() > 20_000);
+		assertEquals(primeira.getBody(), terceira.getBody());
+		assertTrue(acertosFragmentos() >= acertosAntes + 40);
+		assertEquals(20, segunda.getBody().itens().size());
+		assertTrue(segunda.getBody().itens().stream().allMatch(postagem -> texto.equals(postagem.texto())));
+		assertTrue(meterRegistry.get("postagens.fragmentos.bytes").gauge().value() > 20_000);
+	}
+
+	@Test
+	@DisplayName("17 - Deve procurar um tema inexistente no banco só uma vez por importação")
+	void deveConsultarTemaInexistenteUmaVezPorImportacao() {
+
+		//Given
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String linha = "{\"titulo\":\"Importada sem tema\",\"texto\":\"Postagem de um tema que não existe\",\"tema\":{\"id\":999998}}";
+
+		//When
+		long comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<ResultadoLote> umaLinha = importar(linha);
+		long comandosUmaLinha = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<ResultadoLote> dezLinhas = importar(String.join("\n", Collections.nCopies(10, linha)));
+		long comandosDezLinhas = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		//Then
+		assertEquals(1, umaLinha.getBody().rejeitadas());
+		assertEquals(10, dezLinhas.getBody().rejeitadas());
+		assertTrue(dezLinhas.getBody().linhas().stream().allMatch(resultado -> "O tema não existe!".equals(resultado.erro())));
+		assertEquals(comandosUmaLinha, comandosDezLinhas);
+	}
+
+	@Test
+	@DisplayName("18 - Deve ordenar uma postagem importada junto com as gravadas pelo JPA, no mesmo fuso")
+	void deveOrdenarPostagemImportadaComAsDoJpa() {
+
+		//Given
+		Tema outro = temaRepository.save(TestBuilder.criarTema(null, "Tema da postagem importada e da gravada pelo JPA"));
+		ResponseEntity<ResultadoLote> importacao = importar("{\"titulo\":\"Importada antes\",\"texto\":\"Postagem importada antes da outra\","
+				+ "\"tema\":{\"id\":" + outro.getId() + "}}");
+
+		//When
+		ResponseEntity<Postagem> cadastro = testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarPostagem(0L, "Gravada depois", "Postagem gravada pelo JPA depois", outro), token),
+				Postagem.class);
+		ResponseEntity<Pagina<PostagemResumo>> listagem = testRestTemplate.exchange("/temas/" + outro.getId() + "/postagens",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PAGINA_POSTAGENS);
+
+		//Then
+		assertEquals(1, importacao.getBody().inseridas());
+		assertEquals(HttpStatus.CREATED, cadastro.getStatusCode());
+		List<PostagemResumo> itens = listagem.getBody().itens();
+		assertEquals(List.of("Gravada depois", "Importada antes"), itens.stream().map(PostagemResumo::titulo).toList());
+		assertTrue(Duration.between(itens.get(1).data(), itens.get(0).data()).abs().toMinutes() < 1);
+	}
+
+	@Test
+	@DisplayName("19 - Deve alterar uma postagem sem If-Match, pelo PUT e pelo PATCH, com um único comando no banco")
+	void deveAlterarSemIfMatchComUmUnicoComando() {
+
+		//Given
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Postagem postagem = testRestTemplate.exchange(BASE_URL, HttpMethod.POST, JwtHelper.criarRequisicaoComToken(
+				TestBuilder.criarPostagem(0L, "Postagem sem precondição", "Texto gravado antes da alteração", tema), token),
+				Postagem.class).getBody();
+
+		//When
+		long comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<Postagem> alteracao = testRestTemplate.exchange(BASE_URL, HttpMethod.PUT, JwtHelper.criarRequisicaoComToken(
+				TestBuilder.criarPostagem(postagem.getId(), "Postagem alterada sem precondição", "Texto reindexado zeppelin", tema), token),
+				Postagem.class);
+		long comandosAlteracao = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setContentType(MediaType.parseMediaType("application/merge-patch+json"));
+		comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<Void> patch = testRestTemplate.exchange(BASE_URL + "/" + postagem.getId(), HttpMethod.PATCH,
+				new HttpEntity<>("{\"titulo\": \"Título trocado pelo dirigível\"}", cabecalho), Void.class);
+		long comandosPatch = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		//Then
+		assertEquals(HttpStatus.OK, alteracao.getStatusCode());
+		assertEquals(HttpStatus.NO_CONTENT, patch.getStatusCode());
+		assertEquals(1, comandosAlteracao);
+		assertEquals(1, comandosPatch);
+		assertEquals("\"" + postagem.getId() + "-1\"", alteracao.getHeaders().getETag());
+		assertEquals("\"" + postagem.getId() + "-2\"", patch.getHeaders().getETag());
+		assertEquals(List.of(postagem.getId()), buscar("zeppelin"));
+		assertEquals(List.of(postagem.getId()), buscar("dirigível"));
+		assertEquals(List.of(), buscar("precondição"));
+	}
+
+	private List<Long> buscar(String termo) {
+		return testRestTemplate.exchange(BASE_URL + "/busca?q=" + termo, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token),
+				PAGINA_BUSCA).getBody().itens().stream().map(ResultadoBusca::id).toList();
+	}
+
+	@Test
+	@DisplayName("20 - Deve paginar a busca pelo cursor opaco e recusar um deslocamento numérico")
+	void devePaginarBuscaPeloCursor() {
+
+		//Given
+		for (int i = 1; i <= 3; i++) {
+			assertEquals(HttpStatus.CREATED, testRestTemplate.exchange(BASE_URL, HttpMethod.POST, JwtHelper.criarRequisicaoComToken(
+					TestBuilder.criarPostagem(0L, "Postagem paginada " + i, "Texto sobre astrolabio", tema), token), Postagem.class)
+					.getStatusCode());
+		}
+
+		//When
+		ResponseEntity<Pagina<ResultadoBusca>> primeira = testRestTemplate.exchange(BASE_URL + "/busca?q=astrolabio&limite=2",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PAGINA_BUSCA);
+		ResponseEntity<Pagina<ResultadoBusca>> segunda = testRestTemplate.exchange(BASE_URL + "/busca?q=astrolabio&limite=2&apos="
+				+ primeira.getBody().proximo(), HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), PAGINA_BUSCA);
+		ResponseEntity<String> deslocamento = testRestTemplate.exchange(BASE_URL + "/busca?q=astrolabio&apos=2147483647",
+				HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(2, primeira.getBody().itens().size());
+		assertEquals(1, segunda.getBody().itens().size());
+		assertNull(segunda.getBody().proximo());
+		Set<Long> ids = new HashSet<>();
+		primeira.getBody().itens().forEach(resultado -> ids.add(resultado.id()));
+		segunda.getBody().itens().forEach(resultado -> ids.add(resultado.id()));
+		assertEquals(3, ids.size());
+		assertEquals(HttpStatus.BAD_REQUEST, deslocamento.getStatusCode());
+	}
+
+	private ResponseEntity<ResultadoLote> importar(String arquivo) {
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setContentType(MediaType.APPLICATION_NDJSON);
+		return testRestTemplate.exchange(BASE_URL + "/lote", HttpMethod.POST, new HttpEntity<>(arquivo, cabecalho), ResultadoLote.class);
+	}
+
+	private double acertosFragmentos() {
+		return meterRegistry.get("cache.gets").tag("cache", "fragmentos").tag("result", "hit").functionCounter().count();
+	}
+
+	private HttpStatus patch(String url, String corpo) {
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setContentType(MediaType.parseMediaType("application/merge-patch+json"));
+		return HttpStatus.valueOf(testRestTemplate.exchange(url, HttpMethod.PATCH, new HttpEntity<>(corpo, cabecalho), String.class)
+				.getStatusCode().value());
+	}
+
+	private HttpEntity<Postagem> requisicaoComIfMatch(Postagem postagem, String etag) {
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setIfMatch(etag);
+		return new HttpEntity<>(postagem, cabecalho);
+	}
+}
@@ -0,0 +1,118 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.util.TestBuilder;
+
+//Pool do bcrypt com uma thread e uma vaga na fila, ocupadas pelo teste: toda verificação de senha é recusada na hora
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"blogpessoal.senhas.threads=1", "blogpessoal.senhas.fila=1", "blogpessoal.senhas.tentar-apos=2s" })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class SobrecargaSenhasControllerTest {
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	private static final String USUARIO = "sobrecarga@root.com";
+	private static final String SENHA = "rootroot";
+
+	private final CountDownLatch liberar = new CountDownLatch(1);
+	private final CountDownLatch ocupada = new CountDownLatch(1);
+
+	@BeforeAll
+	void inicio() {
+		usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Root", USUARIO, SENHA));
+
+		//O primeiro login de um usuário inexistente gera o hash usado contra ataques de tempo: depois dele, o login
+		//de um usuário inexistente chega à verificação de senha do ramo "usuário não encontrado" do DaoAuthenticationProvider
+		assertEquals(HttpStatus.UNAUTHORIZED, logar("inexistente@root.com").getStatusCode());
+
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordEncoder, "executor");
+		executor.execute(this::aguardar); //ocupa a única thread
+
+		//Até a thread tirar a primeira tarefa da fila, a vaga ainda está ocupada por ela
+		try {
+			assertTrue(ocupada.await(10, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+
+		executor.execute(this::aguardar); //ocupa a única vaga da fila
+	}
+
+	@AfterAll
+	void fim() {
+		liberar.countDown();
+	}
+
+	@Test
+	@DisplayName("01 - Deve responder 503 com Retry-After ao login quando o pool do bcrypt está cheio")
+	void deveRecusarLoginComPoolCheio() {
+
+		//When
+		ResponseEntity<String> resposta = logar(USUARIO);
+
+		//Then
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+		assertEquals("2", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	@DisplayName("02 - Deve responder 503, e não 401, ao login de um usuário inexistente quando o pool do bcrypt está cheio")
+	void deveRecusarLoginDeUsuarioInexistenteComPoolCheio() {
+
+		//When
+		ResponseEntity<String> resposta = logar("inexistente@root.com");
+
+		//Then
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+		assertEquals("2", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	private ResponseEntity<String> logar(String usuario) {
+		return testRestTemplate.exchange("/usuarios/logar", HttpMethod.POST,
+				new HttpEntity<UsuarioLogin>(TestBuilder.criarUsuarioLogin(usuario, SENHA)), String.class);
+	}
+
+	private void aguardar() {
+		ocupada.countDown();
+		try {
+			liberar.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
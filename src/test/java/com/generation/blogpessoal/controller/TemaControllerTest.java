@@ -0,0 +1,326 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemResumo;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.service.CatalogoTemaService;
+import com.generation.blogpessoal.service.UsuarioService;
+import com.generation.blogpessoal.util.JwtHelper;
+import com.generation.blogpessoal.util.TestBuilder;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class TemaControllerTest {
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CatalogoTemaService catalogoTemaService;
+
+	private static final String BASE_URL = "/temas";
+	private static final String USUARIO = "temas@root.com";
+	private static final String SENHA = "rootroot";
+
+	private static final ParameterizedTypeReference<Pagina<PostagemResumo>> PAGINA_POSTAGENS =
+			new ParameterizedTypeReference<Pagina<PostagemResumo>>() {};
+
+	private String token;
+
+	@BeforeAll
+	void inicio() {
+		usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Root", USUARIO, SENHA));
+		token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+	}
+
+	@Test
+	@DisplayName("01 - Deve responder 304 quando o cliente já tem a versão atual dos temas")
+	void deveResponderNaoModificado() {
+
+		//Given
+		ResponseEntity<String> primeira = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		String etag = primeira.getHeaders().getETag();
+
+		//When
+		ResponseEntity<String> segunda = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				requisicaoCondicional(etag), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, primeira.getStatusCode());
+		assertNotNull(etag);
+		assertEquals(HttpStatus.NOT_MODIFIED, segunda.getStatusCode());
+		assertNull(segunda.getBody());
+	}
+
+	@Test
+	@DisplayName("02 - Deve gerar uma nova versão dos temas depois de um cadastro")
+	void deveMudarVersaoAposCadastro() {
+
+		//Given
+		String etagAnterior = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getHeaders().getETag();
+
+		Tema tema = TestBuilder.criarTema(null, "Tema cadastrado no teste de versão");
+		ResponseEntity<Tema> cadastro = testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(tema, token), Tema.class);
+
+		//When
+		ResponseEntity<String> resposta = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				requisicaoCondicional(etagAnterior), String.class);
+
+		//Then
+		assertEquals(HttpStatus.CREATED, cadastro.getStatusCode());
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertNotEquals(etagAnterior, resposta.getHeaders().getETag());
+	}
+
+	@Test
+	@DisplayName("03 - Deve listar o tema com a quantidade de postagens, sem as postagens")
+	void deveContarPostagensDoTema() {
+
+		//Given
+		Tema tema = cadastrarTema("Tema com postagens contadas");
+		cadastrarPostagens(tema, 3);
+
+		//When
+		ResponseEntity<TemaResumo> resposta = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), TemaResumo.class);
+		ResponseEntity<String> corpo = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(tema.getDescricao(), resposta.getBody().descricao());
+		assertEquals(3L, resposta.getBody().quantidadePostagens());
+		assertFalse(corpo.getBody().contains("\"postagem\""));
+	}
+
+	@Test
+	@DisplayName("04 - Deve paginar as postagens de um tema")
+	void devePaginarPostagensDoTema() {
+
+		//Given
+		Tema tema = cadastrarTema("Tema com postagens paginadas");
+		cadastrarPostagens(tema, 5);
+		String url = BASE_URL + "/" + tema.getId() + "/postagens?limite=2";
+
+		//When
+		List<PostagemResumo> recebidas = new ArrayList<>();
+		String cursor = null;
+		int paginas = 0;
+
+		do {
+			ResponseEntity<Pagina<PostagemResumo>> resposta = testRestTemplate.exchange(
+					cursor == null ? url : url + "&apos=" + cursor, HttpMethod.GET,
+					JwtHelper.criarRequisicaoComToken(token), PAGINA_POSTAGENS);
+
+			assertEquals(HttpStatus.OK, resposta.getStatusCode());
+			recebidas.addAll(resposta.getBody().itens());
+			cursor = resposta.getBody().proximo();
+			paginas++;
+		} while (cursor != null);
+
+		//Then
+		assertEquals(3, paginas);
+		assertEquals(5, recebidas.size());
+		assertEquals(5, recebidas.stream().map(PostagemResumo::id).distinct().count());
+		assertTrue(recebidas.stream().allMatch(postagem -> tema.getId().equals(postagem.temaId())));
+		assertEquals(HttpStatus.NOT_FOUND, testRestTemplate.exchange(BASE_URL + "/0/postagens", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getStatusCode());
+	}
+
+	@Test
+	@DisplayName("05 - Deve apagar o tema e as postagens dele com o mesmo número de comandos, qualquer que seja a quantidade de postagens")
+	void deveApagarTemaComPostagens() {
+
+		//Given
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Tema vazio = cadastrarTema("Tema apagado sem postagens");
+		Tema comPostagens = cadastrarTema("Tema apagado com postagens");
+		cadastrarPostagens(comPostagens, 10);
+
+		//When
+		long comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<Void> semPostagens = testRestTemplate.exchange(BASE_URL + "/" + vazio.getId(), HttpMethod.DELETE,
+				JwtHelper.criarRequisicaoComToken(token), Void.class);
+		long comandosSemPostagens = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<Void> dezPostagens = testRestTemplate.exchange(BASE_URL + "/" + comPostagens.getId(), HttpMethod.DELETE,
+				JwtHelper.criarRequisicaoComToken(token), Void.class);
+		long comandosDezPostagens = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		//Then
+		assertEquals(HttpStatus.NO_CONTENT, semPostagens.getStatusCode());
+		assertEquals(HttpStatus.NO_CONTENT, dezPostagens.getStatusCode());
+		assertEquals(2, comandosSemPostagens); //DELETE das postagens e DELETE do tema
+		assertEquals(comandosSemPostagens, comandosDezPostagens);
+		assertEquals(0, postagemRepository.findIdsByTemaId(comPostagens.getId()).size());
+		assertEquals(HttpStatus.NOT_FOUND, testRestTemplate.exchange(BASE_URL + "/" + comPostagens.getId(), HttpMethod.DELETE,
+				JwtHelper.criarRequisicaoComToken(token), Void.class).getStatusCode());
+	}
+
+	@Test
+	@DisplayName("06 - Deve responder as leituras dos temas pelo catálogo, sem abrir transações além da listagem das postagens")
+	void deveLerTemasSemTransacao() {
+
+		//Given
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Tema tema = cadastrarTema("Tema lido sem transação");
+		cadastrarPostagens(tema, 1);
+		String etag = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getHeaders().getETag();
+
+		//When
+		long transacoesAntes = estatisticas.getTransactionCount();
+		ResponseEntity<String> naoModificada = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				requisicaoCondicional(etag), String.class);
+		long transacoesNaoModificada = estatisticas.getTransactionCount() - transacoesAntes;
+
+		transacoesAntes = estatisticas.getTransactionCount();
+		ResponseEntity<String> porId = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		long transacoesPorId = estatisticas.getTransactionCount() - transacoesAntes;
+
+		transacoesAntes = estatisticas.getTransactionCount();
+		ResponseEntity<String> postagens = testRestTemplate.exchange(BASE_URL + "/" + tema.getId() + "/postagens", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		long transacoesPostagens = estatisticas.getTransactionCount() - transacoesAntes;
+
+		//Then
+		assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+		assertEquals(HttpStatus.OK, porId.getStatusCode());
+		assertEquals(HttpStatus.OK, postagens.getStatusCode());
+		assertEquals(0, transacoesNaoModificada);
+		assertEquals(0, transacoesPorId);
+		assertEquals(1, transacoesPostagens);
+	}
+
+	@Test
+	@DisplayName("07 - Deve responder 304 depois de gravar postagens sem recalcular as quantidades e sem mudar a versão do catálogo")
+	void deveResponderNaoModificadoSemRecalcular() {
+
+		//Given
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Tema tema = cadastrarTema("Tema com quantidades recalculadas só para o corpo");
+		long versaoCatalogo = catalogoTemaService.catalogo().versao();
+		String etagAnterior = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class).getHeaders().getETag();
+
+		//When
+		cadastrarPostagens(tema, 2);
+		String etag = catalogoTemaService.etag();
+
+		long comandosAntes = estatisticas.getPrepareStatementCount();
+		ResponseEntity<String> naoModificada = testRestTemplate.exchange(BASE_URL, HttpMethod.GET,
+				requisicaoCondicional(etag), String.class);
+		long comandosNaoModificada = estatisticas.getPrepareStatementCount() - comandosAntes;
+
+		ResponseEntity<TemaResumo> atualizada = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				requisicaoCondicional(etagAnterior), TemaResumo.class);
+
+		//Then
+		assertNotEquals(etagAnterior, etag);
+		assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+		assertEquals(0, comandosNaoModificada);
+		assertEquals(HttpStatus.OK, atualizada.getStatusCode());
+		assertEquals(2L, atualizada.getBody().quantidadePostagens());
+		assertEquals(catalogoTemaService.etag(tema.getId()), atualizada.getHeaders().getETag());
+		assertEquals(versaoCatalogo, catalogoTemaService.catalogo().versao());
+	}
+
+	@Test
+	@DisplayName("08 - Deve responder 404, e não 304, para um tema apagado ou inexistente mesmo com o ETag atual")
+	void deveResponderNaoEncontradoParaTemaApagado() {
+
+		//Given
+		Tema tema = cadastrarTema("Tema apagado depois da leitura");
+		Tema outro = cadastrarTema("Tema que continua no catálogo");
+		ResponseEntity<TemaResumo> leitura = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), TemaResumo.class);
+		String etag = leitura.getHeaders().getETag();
+
+		//When
+		ResponseEntity<String> naoModificada = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				requisicaoCondicional(etag), String.class);
+		ResponseEntity<String> outroTema = testRestTemplate.exchange(BASE_URL + "/" + outro.getId(), HttpMethod.GET,
+				requisicaoCondicional(etag), String.class);
+		ResponseEntity<Void> exclusao = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.DELETE,
+				JwtHelper.criarRequisicaoComToken(token), Void.class);
+		ResponseEntity<String> apagado = testRestTemplate.exchange(BASE_URL + "/" + tema.getId(), HttpMethod.GET,
+				requisicaoCondicional(catalogoTemaService.etag(tema.getId())), String.class);
+		ResponseEntity<String> inexistente = testRestTemplate.exchange(BASE_URL + "/999999", HttpMethod.GET,
+				requisicaoCondicional(catalogoTemaService.etag()), String.class);
+
+		//Then
+		assertEquals(HttpStatus.OK, leitura.getStatusCode());
+		assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+		assertEquals(HttpStatus.OK, outroTema.getStatusCode());
+		assertEquals(HttpStatus.NO_CONTENT, exclusao.getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, apagado.getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, inexistente.getStatusCode());
+	}
+
+	private Tema cadastrarTema(String descricao) {
+		return testRestTemplate.exchange(BASE_URL, HttpMethod.POST,
+				JwtHelper.criarRequisicaoComToken(TestBuilder.criarTema(null, descricao), token), Tema.class).getBody();
+	}
+
+	private void cadastrarPostagens(Tema tema, int quantidade) {
+		for (int i = 1; i <= quantidade; i++) {
+			Postagem postagem = TestBuilder.criarPostagem(0L, "Postagem do tema " + i, "Texto da postagem " + i, tema);
+			assertEquals(HttpStatus.CREATED, testRestTemplate.exchange("/postagens", HttpMethod.POST,
+					JwtHelper.criarRequisicaoComToken(postagem, token), Postagem.class).getStatusCode());
+		}
+	}
+
+	private HttpEntity<Void> requisicaoCondicional(String etag) {
+		HttpHeaders cabecalho = new HttpHeaders(JwtHelper.criarRequisicaoComToken(token).getHeaders());
+		cabecalho.setIfNoneMatch(etag);
+		return new HttpEntity<>(cabecalho);
+	}
+}
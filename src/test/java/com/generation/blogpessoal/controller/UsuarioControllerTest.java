@@ -1,10 +1,16 @@
 package com.generation.blogpessoal.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
@@ -14,17 +20,26 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioResumo;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
 import com.generation.blogpessoal.repository.UsuarioRepository;
 import com.generation.blogpessoal.service.UsuarioService;
 import com.generation.blogpessoal.util.JwtHelper;
 import com.generation.blogpessoal.util.TestBuilder;
 
+import jakarta.persistence.EntityManagerFactory;
+
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 //Random Port usa uma porta aleatório que está livre para rodar os testes - Se rodássemos na porta 8080 e a aplicação estiver rodando, ocorrerá um conflito de portas
 @TestInstance(TestInstance.Lifecycle.PER_CLASS) //Indica que o ciclo de vida de cada teste seja feito por classe
@@ -41,9 +56,21 @@ public class UsuarioControllerTest {
 	@Autowired
 	private UsuarioRepository usuarioRepository;
 	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private TemaRepository temaRepository;
+	
+	@Autowired
+	private PostagemRepository postagemRepository;
+	
 	private static final String BASE_URL = "/usuarios"; //indica o caminho da requisição (RequestMapping de Usuario Controller)
 	private static final String USUARIO = "root@root.com"; //indica qual usuario
 	private static final String SENHA = "rootroot";
+	
+	private static final ParameterizedTypeReference<Pagina<UsuarioResumo>> PAGINA_USUARIOS =
+			new ParameterizedTypeReference<Pagina<UsuarioResumo>>() {};
 
 	@BeforeAll //Executa este método específico antes de rodar todos os testes, no caso: 
 	void inicio() {
@@ -152,6 +179,110 @@ public class UsuarioControllerTest {
 	
 	
 	
+	@Test
+	@DisplayName("4 - Deve buscar o usuário por id no cache de segundo nível a partir da segunda leitura")
+	void deveBuscarUsuarioNoCache() {
+		//Given
+		Usuario usuario = usuarioRepository.findByUsuario(USUARIO).get();
+		String token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		testRestTemplate.exchange(BASE_URL + "/" + usuario.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), Usuario.class);
+		long acertosAntes = estatisticas.getSecondLevelCacheHitCount();
+		
+		//When
+		ResponseEntity<Usuario> resposta = testRestTemplate.exchange(BASE_URL + "/" + usuario.getId(), HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), Usuario.class);
+		
+		//Then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertTrue(estatisticas.getSecondLevelCacheHitCount() > acertosAntes);
+	}
+	
+	@Test
+	@DisplayName("5 - Deve listar o diretório de usuários paginado, com uma consulta por página e sem a senha")
+	void deveListarDiretorioPaginado() {
+		//Given
+		String token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String url = BASE_URL + "/all?limite=2";
+		
+		testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class);
+		long consultasAntes = estatisticas.getPrepareStatementCount();
+		
+		//When
+		List<UsuarioResumo> recebidos = new ArrayList<>();
+		String cursor = null;
+		int paginas = 0;
+		
+		do {
+			ResponseEntity<Pagina<UsuarioResumo>> resposta = testRestTemplate.exchange(
+					cursor == null ? url : url + "&apos=" + cursor, HttpMethod.GET,
+					JwtHelper.criarRequisicaoComToken(token), PAGINA_USUARIOS);
+			
+			assertEquals(HttpStatus.OK, resposta.getStatusCode());
+			recebidos.addAll(resposta.getBody().itens());
+			cursor = resposta.getBody().proximo();
+			paginas++;
+		} while (cursor != null);
+		
+		//Then
+		assertEquals(usuarioRepository.count(), recebidos.size());
+		assertEquals(paginas, estatisticas.getPrepareStatementCount() - consultasAntes - 1); //o count() acima também é uma consulta
+		assertTrue(recebidos.stream().allMatch(usuario -> usuario.quantidadePostagens() != null));
+		assertFalse(testRestTemplate.exchange(url, HttpMethod.GET, JwtHelper.criarRequisicaoComToken(token), String.class)
+				.getBody().contains("senha"));
+	}
+	
+	@Test
+	@DisplayName("6 - Deve apagar a própria conta com as postagens, mas não a conta de outro usuário")
+	void deveApagarPropriaConta() {
+		//Given
+		Usuario autor = usuarioService.cadastrarUsuario(TestBuilder.criarUsuario(null, "Autor", "autor@root.com", SENHA)).get();
+		String tokenAutor = JwtHelper.obterToken(testRestTemplate, "autor@root.com", SENHA);
+		String tokenRoot = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+		Tema tema = temaRepository.save(TestBuilder.criarTema(null, "Tema das postagens do autor"));
+		
+		for (int i = 1; i <= 3; i++) {
+			Postagem postagem = TestBuilder.criarPostagem(0L, "Postagem do autor " + i, "Texto da postagem do autor " + i, tema);
+			postagem.setUsuario(autor);
+			testRestTemplate.exchange("/postagens", HttpMethod.POST, JwtHelper.criarRequisicaoComToken(postagem, tokenAutor), Postagem.class);
+		}
+		
+		//When
+		ResponseEntity<Void> outroUsuario = testRestTemplate.exchange(BASE_URL + "/" + autor.getId(), HttpMethod.DELETE,
+				JwtHelper.criarRequisicaoComToken(tokenRoot), Void.class);
+		ResponseEntity<Void> propriaConta = testRestTemplate.exchange(BASE_URL + "/" + autor.getId(), HttpMethod.DELETE,
+				JwtHelper.criarRequisicaoComToken(tokenAutor), Void.class);
+		
+		//Then
+		assertEquals(HttpStatus.FORBIDDEN, outroUsuario.getStatusCode());
+		assertEquals(HttpStatus.NO_CONTENT, propriaConta.getStatusCode());
+		assertFalse(usuarioRepository.existsById(autor.getId()));
+		assertEquals(0, postagemRepository.findIdsByUsuarioId(autor.getId()).size());
+		assertEquals(HttpStatus.UNAUTHORIZED, testRestTemplate.exchange(BASE_URL + "/all", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(tokenAutor), String.class).getStatusCode());
+	}
+	
+	@Test
+	@DisplayName("7 - Deve exigir o token para as métricas na porta da API, mas não para o health")
+	void deveExigirTokenParaMetricas() {
+		//Given
+		String token = JwtHelper.obterToken(testRestTemplate, USUARIO, SENHA);
+		
+		//When
+		ResponseEntity<String> semToken = testRestTemplate.exchange("/actuator/prometheus", HttpMethod.GET, null, String.class);
+		ResponseEntity<String> comToken = testRestTemplate.exchange("/actuator/metrics", HttpMethod.GET,
+				JwtHelper.criarRequisicaoComToken(token), String.class);
+		ResponseEntity<String> health = testRestTemplate.exchange("/actuator/health", HttpMethod.GET, null, String.class);
+		
+		//Then
+		assertEquals(HttpStatus.UNAUTHORIZED, semToken.getStatusCode());
+		assertEquals(HttpStatus.OK, comToken.getStatusCode());
+		assertEquals(HttpStatus.OK, health.getStatusCode());
+	}
+	
 	//Criar Método Listar Todas 
 	
 	//Criar Método Listar Por Id 
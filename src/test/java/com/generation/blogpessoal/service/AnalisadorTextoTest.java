@@ -0,0 +1,23 @@
+package com.generation.blogpessoal.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class AnalisadorTextoTest {
+
+	@Test
+	@DisplayName("01 - Deve trocar -ais e -eis por -al e -el só em palavras com mais de quatro letras")
+	void deveReduzirPluralEmAisEis() {
+
+		//Then
+		assertEquals("jornal", AnalisadorTexto.singular("jornais"));
+		assertEquals("papel", AnalisadorTexto.singular("papeis"));
+		assertEquals("pais", AnalisadorTexto.singular("pais"));
+		assertEquals("leis", AnalisadorTexto.singular("leis"));
+	}
+}
@@ -0,0 +1,154 @@
+package com.generation.blogpessoal.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.generation.blogpessoal.model.CursorBusca;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoBusca;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.util.TestBuilder;
+
+//O índice não usa o banco para indexar e buscar, então os testes trabalham com uma instância própria, sem o contexto do Spring
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class BuscaPostagemServiceTest {
+
+	@Test
+	@DisplayName("01 - Não deve trocar a versão indexada por uma mais antiga, nem trazer de volta uma postagem apagada")
+	void deveManterVersaoMaisNova() {
+
+		//Given
+		BuscaPostagemService indice = new BuscaPostagemService();
+
+		//When
+		indice.indexar(postagem(1L, 2L, "Jardim de girassol"));
+		indice.indexar(postagem(1L, 1L, "Jardim de bromelia"));
+
+		indice.indexar(postagem(2L, 0L, "Canteiro de orquidea"));
+		indice.remover(2L);
+		indice.indexar(postagem(2L, 1L, "Canteiro de orquidea"));
+
+		//Then
+		assertEquals(List.of(1L), ids(indice.buscar("girassol", null, 10).itens()));
+		assertTrue(indice.buscar("bromelia", null, 10).itens().isEmpty());
+		assertTrue(indice.buscar("orquidea", null, 10).itens().isEmpty());
+		assertEquals(1, indice.tamanho());
+	}
+
+	@Test
+	@DisplayName("02 - Deve renumerar os documentos na compactação, liberando as posições das postagens apagadas")
+	void deveRenumerarNaCompactacao() {
+
+		//Given
+		BuscaPostagemService indice = new BuscaPostagemService();
+
+		for (long id = 1; id <= 400; id++) {
+			indice.indexar(postagem(id, 0L, (id % 2 == 0 ? "Jardim par " : "Jardim impar ") + id));
+		}
+
+		//When
+		for (long id = 1; id <= 300; id++) {
+			indice.remover(id);
+		}
+
+		indice.indexar(postagem(400L, 1L, "Jardim par alterado"));
+		List<?> documentos = (List<?>) ReflectionTestUtils.getField(indice, "documentos");
+
+		//Then
+		assertEquals(100, indice.tamanho());
+		assertTrue(documentos.size() < 400);
+		assertEquals(50, indice.buscar("impar", null, 100).itens().size());
+		assertTrue(ids(indice.buscar("impar", null, 100).itens()).stream().allMatch(id -> id > 300 && id % 2 == 1));
+		assertEquals(List.of(400L), ids(indice.buscar("alterado", null, 10).itens()));
+		assertEquals(50, indice.buscar("par", null, 100).itens().size());
+	}
+
+	@Test
+	@DisplayName("03 - Deve percorrer pelo cursor todos os resultados empatados, uma vez cada, mesmo com uma compactação no meio")
+	void devePaginarPeloCursor() {
+
+		//Given
+		BuscaPostagemService indice = new BuscaPostagemService();
+
+		for (long id = 1; id <= 400; id++) {
+			indice.indexar(postagem(id, 0L, id <= 25 ? "Jardim de cravo" : "Jardim de lirio"));
+		}
+
+		//When
+		List<Long> encontradas = new ArrayList<>();
+		Pagina<ResultadoBusca> pagina = indice.buscar("cravo", null, 10);
+		encontradas.addAll(ids(pagina.itens()));
+
+		for (long id = 26; id <= 400; id++) {
+			indice.remover(id); //força a renumeração dos documentos entre as páginas
+		}
+
+		while (pagina.proximo() != null) {
+			pagina = indice.buscar("cravo", CursorBusca.decodificar(pagina.proximo()), 10);
+			encontradas.addAll(ids(pagina.itens()));
+		}
+
+		//Then
+		assertEquals(LongStream.rangeClosed(1, 25).boxed().sorted(Comparator.reverseOrder()).toList(), encontradas);
+	}
+
+	@Test
+	@DisplayName("04 - Deve retirar as postagens de um tema e de um autor apagados, sem trazer de volta uma gravação atrasada")
+	void deveRemoverPorTemaEPorAutor() {
+
+		//Given
+		BuscaPostagemService indice = new BuscaPostagemService();
+		Tema apagado = TestBuilder.criarTema(1L, "Tema apagado");
+		Tema mantido = TestBuilder.criarTema(2L, "Tema mantido");
+		Usuario autor = TestBuilder.criarUsuario(7L, "Autor", "autor@root.com", "rootroot");
+
+		for (long id = 1; id <= 10; id++) {
+			Postagem postagem = postagem(id, 0L, "Jardim de violeta " + id);
+			postagem.setTema(id <= 4 ? apagado : mantido);
+			postagem.setUsuario(id >= 9 ? autor : null);
+			indice.indexar(postagem);
+		}
+
+		//When
+		indice.removerPorTema(1L);
+		indice.removerPorAutor(7L);
+
+		Postagem atrasada = postagem(11L, 0L, "Jardim de violeta atrasado");
+		atrasada.setTema(apagado);
+		indice.indexar(atrasada);
+
+		Postagem doAutor = postagem(12L, 0L, "Jardim de violeta do autor");
+		doAutor.setTema(mantido);
+		doAutor.setUsuario(autor);
+		indice.indexar(doAutor);
+
+		//Then
+		assertEquals(List.of(5L, 6L, 7L, 8L), ids(indice.buscar("violeta", null, 20).itens()).stream().sorted().toList());
+		assertEquals(4, indice.tamanho());
+	}
+
+	private static Postagem postagem(Long id, Long versao, String titulo) {
+		Postagem postagem = TestBuilder.criarPostagem(id, titulo, "Texto da postagem " + titulo, null);
+		postagem.setVersao(versao);
+		postagem.setData(LocalDateTime.now());
+		return postagem;
+	}
+
+	private static List<Long> ids(List<ResultadoBusca> resultados) {
+		return resultados.stream().map(ResultadoBusca::id).toList();
+	}
+}
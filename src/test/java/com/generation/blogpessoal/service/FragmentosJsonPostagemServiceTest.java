@@ -0,0 +1,69 @@
+package com.generation.blogpessoal.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.generation.blogpessoal.model.PostagemResumo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//O cache só depende do ObjectMapper, então os testes trabalham com uma instância própria, sem o contexto do Spring
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class FragmentosJsonPostagemServiceTest {
+
+	private static final PostagemResumo POSTAGEM = new PostagemResumo(1L, "Título com acentuação", "Texto com ç e ã",
+			LocalDateTime.of(2026, 10, 17, 12, 30), 3L, 2L, "Tema", 4L, "Autora");
+
+	@Test
+	@DisplayName("01 - Deve escrever o JSON em cache igual ao da serialização normal, em bytes e em texto")
+	void deveEscreverFragmentoEmBytesETexto() throws Exception {
+
+		//Given
+		SimpleMeterRegistry registro = new SimpleMeterRegistry();
+		FragmentosJsonPostagemService fragmentos = new FragmentosJsonPostagemService(DataSize.ofMegabytes(1), registro);
+		ObjectMapper comCache = new ObjectMapper().registerModules(new JavaTimeModule(), fragmentos.modulo());
+		String esperado = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(POSTAGEM);
+
+		//When
+		String bytes = new String(comCache.writeValueAsBytes(POSTAGEM), StandardCharsets.UTF_8);
+		String texto = comCache.writeValueAsString(POSTAGEM);
+		String lista = comCache.writeValueAsString(new PostagemResumo[] { POSTAGEM, POSTAGEM });
+
+		//Then
+		assertEquals(esperado, bytes);
+		assertEquals(esperado, texto);
+		assertEquals("[" + esperado + "," + esperado + "]", lista);
+		assertEquals(3.0, acertos(registro));
+	}
+
+	@Test
+	@DisplayName("02 - Não deve ler nem preencher o cache com o atributo SEM_CACHE")
+	void naoDeveUsarCacheSemCache() throws Exception {
+
+		//Given
+		SimpleMeterRegistry registro = new SimpleMeterRegistry();
+		FragmentosJsonPostagemService fragmentos = new FragmentosJsonPostagemService(DataSize.ofMegabytes(1), registro);
+		ObjectMapper comCache = new ObjectMapper().registerModules(new JavaTimeModule(), fragmentos.modulo());
+
+		//When
+		comCache.writer().withAttribute(FragmentosJsonPostagemService.SEM_CACHE, Boolean.TRUE).writeValueAsString(POSTAGEM);
+
+		//Then
+		assertEquals(0.0, registro.get("postagens.fragmentos.bytes").gauge().value());
+		assertEquals(0.0, acertos(registro));
+	}
+
+	private static double acertos(SimpleMeterRegistry registro) {
+		return registro.get("cache.gets").tag("cache", "fragmentos").tag("result", "hit").functionCounter().count();
+	}
+}
@@ -0,0 +1,92 @@
+package com.generation.blogpessoal.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.generation.blogpessoal.security.SobrecargaException;
+import com.generation.blogpessoal.util.TestBuilder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//A gravação fica presa numa transação que só termina quando o teste libera: nada chega ao banco, então não há contexto do Spring
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+public class GravacaoAgrupadaPostagemServiceTest {
+
+	@Test
+	@DisplayName("01 - Deve responder 503 quando a gravação do grupo passa da espera máxima")
+	void deveRecusarQuandoGravacaoDemora() {
+
+		//Given
+		CountDownLatch liberar = new CountDownLatch(1);
+		GravacaoAgrupadaPostagemService gravacao = new GravacaoAgrupadaPostagemService(new ImportacaoPostagemService(),
+				new BuscaPostagemService(), new CatalogoTemaService(), new TransacaoPresa(liberar), new SimpleMeterRegistry(),
+				Duration.ofMillis(1), 64, 16, Duration.ofSeconds(2), Duration.ofMillis(200));
+
+		//When
+		try {
+			long inicio = System.nanoTime();
+			SobrecargaException erro = assertThrows(SobrecargaException.class, () -> gravacao.gravar(
+					TestBuilder.criarPostagem(0L, "Postagem presa", "Texto da postagem presa no banco", null)));
+
+			//Then
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, erro.getStatusCode());
+			assertEquals("2", erro.getHeaders().getFirst("Retry-After"));
+			assertTrue(Duration.ofNanos(System.nanoTime() - inicio).compareTo(Duration.ofSeconds(5)) < 0);
+		} finally {
+			liberar.countDown();
+			gravacao.close();
+		}
+	}
+
+	@Test
+	@DisplayName("02 - Deve recusar com 503 uma postagem enviada depois do encerramento")
+	void deveRecusarDepoisDoEncerramento() {
+
+		//Given
+		GravacaoAgrupadaPostagemService gravacao = new GravacaoAgrupadaPostagemService(new ImportacaoPostagemService(),
+				new BuscaPostagemService(), new CatalogoTemaService(), new TransacaoPresa(new CountDownLatch(0)),
+				new SimpleMeterRegistry(), Duration.ofMillis(1), 64, 16, Duration.ofSeconds(1), Duration.ofSeconds(30));
+
+		//When
+		gravacao.close();
+
+		//Then
+		assertThrows(SobrecargaException.class, () -> gravacao.gravar(
+				TestBuilder.criarPostagem(0L, "Postagem tardia", "Texto enviado depois do encerramento", null)));
+	}
+
+	//Simula uma conexão presa: a transação só termina quando o latch é liberado, e então falha como uma conexão perdida
+	private static class TransacaoPresa extends TransactionTemplate {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient CountDownLatch liberar;
+
+		TransacaoPresa(CountDownLatch liberar) {
+			this.liberar = liberar;
+		}
+
+		@Override
+		public void executeWithoutResult(Consumer<TransactionStatus> acao) {
+			try {
+				liberar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IllegalStateException("Conexão perdida");
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.generation.blogpessoal.util;
 
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.model.UsuarioLogin;
 
@@ -21,6 +23,22 @@ public class TestBuilder {
 		novoUsuarioLogin.setSenha(senha);
 		return novoUsuarioLogin;
 	}
+
+	public static Tema criarTema(Long id, String descricao) {
+		Tema novoTema = new Tema();
+		novoTema.setId(id);
+		novoTema.setDescricao(descricao);
+		return novoTema;
+	}
+
+	public static Postagem criarPostagem(Long id, String titulo, String texto, Tema tema) {
+		Postagem novaPostagem = new Postagem();
+		novaPostagem.setId(id);
+		novaPostagem.setTitulo(titulo);
+		novaPostagem.setTexto(texto);
+		novaPostagem.setTema(tema);
+		return novaPostagem;
+	}
 	
 	
 	